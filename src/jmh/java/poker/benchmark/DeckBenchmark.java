@@ -0,0 +1,70 @@
+package poker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import poker.game.common.Card;
+import poker.game.common.Deck;
+import poker.game.server.TableRandom;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+import static poker.game.common.PokerConstants.HAND_SIZE;
+import static poker.game.common.PokerConstants.NUM_COMMUNITY_CARDS;
+import static poker.game.common.PokerConstants.NUM_PLAYERS;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DeckBenchmark {
+    private Deck deck;
+    private RandomGenerator random;
+    private ArrayList<Card> cards;
+    private Card[] cardArray;
+
+    @Setup
+    public void setup() {
+        deck = new Deck();
+        random = TableRandom.replay(42);
+        cards = new ArrayList<>(NUM_PLAYERS * HAND_SIZE + NUM_COMMUNITY_CARDS);
+        cardArray = new Card[NUM_PLAYERS * HAND_SIZE + NUM_COMMUNITY_CARDS];
+    }
+
+    @Benchmark
+    public Deck reset() {
+        deck.reset();
+        return deck;
+    }
+
+    @Benchmark
+    public Deck resetAndShuffle() {
+        deck.reset();
+        deck.shuffle(random);
+        return deck;
+    }
+
+    // What Poker does at the start of every hand: fill the existing hand and board lists
+    @Benchmark
+    public ArrayList<Card> dealTableIntoList() {
+        deck.reset();
+        deck.shuffle(random);
+        cards.clear();
+        deck.dealCards(cards, NUM_PLAYERS * HAND_SIZE + NUM_COMMUNITY_CARDS);
+        return cards;
+    }
+
+    @Benchmark
+    public Card[] dealTableIntoArray() {
+        deck.reset();
+        deck.shuffle(random);
+        deck.dealCards(cardArray, 0, cardArray.length);
+        return cardArray;
+    }
+
+    @Benchmark
+    public ArrayList<Card> dealNewList() {
+        deck.reset();
+        deck.shuffle(random);
+        return deck.dealCards(NUM_PLAYERS * HAND_SIZE + NUM_COMMUNITY_CARDS);
+    }
+}
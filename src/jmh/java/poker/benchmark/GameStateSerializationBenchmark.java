@@ -0,0 +1,74 @@
+package poker.benchmark;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import poker.connection.protocol.codec.Codecs;
+import poker.connection.protocol.message.JsonPayload;
+import poker.connection.protocol.message.Message;
+import poker.game.common.GameSerializer;
+import poker.game.common.GameState;
+import poker.game.server.Poker;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static poker.connection.protocol.message.State.MATCH_DISPLAY;
+import static poker.connection.protocol.message.Status.REQUEST;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GameStateSerializationBenchmark {
+    private GameState gameState;
+    private String gameStateJson;
+
+    @Setup
+    public void setup() {
+        Poker poker = new Poker(new ArrayList<>(List.of("marco", "tiago", "ramos", "joao", "rita", "jorge")));
+        gameState = poker.getGameStateToSend(0);
+        gameStateJson = new Gson().toJson(gameState);
+    }
+
+    @Benchmark
+    public String reflectiveGsonPerCall() {
+        return new Gson().toJson(gameState);
+    }
+
+    @Benchmark
+    public String sharedAdapters() {
+        return GameSerializer.toJson(gameState);
+    }
+
+    @Benchmark
+    public GameState reflectiveGsonPerCallRead() {
+        return new Gson().fromJson(gameStateJson, GameState.class);
+    }
+
+    @Benchmark
+    public GameState sharedAdaptersRead() {
+        return GameSerializer.fromJson(gameStateJson);
+    }
+
+    @Benchmark
+    public byte[] previousDisplayFrame() throws IOException {
+        Message message = new Message(MATCH_DISPLAY, REQUEST, null, Map.of("gameState", new Gson().toJson(gameState)), "token");
+        return Codecs.JSON.encode(message);
+    }
+
+    @Benchmark
+    public byte[] jsonDisplayFrame() throws IOException {
+        JsonPayload payload = writer -> GameSerializer.write(gameState, writer);
+        Message message = new Message(MATCH_DISPLAY, REQUEST, null, Map.of("gameState", payload), "token");
+        return Codecs.JSON.encode(message);
+    }
+
+    @Benchmark
+    public byte[] binaryDisplayFrame() throws IOException {
+        JsonPayload payload = writer -> GameSerializer.write(gameState, writer);
+        Message message = new Message(MATCH_DISPLAY, REQUEST, null, Map.of("gameState", payload), "token");
+        return Codecs.BINARY.encode(message);
+    }
+}
@@ -0,0 +1,47 @@
+package poker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import poker.game.common.HandRank;
+import poker.game.common.PokerPlayer;
+import poker.game.server.HandRanker;
+import poker.game.server.Poker;
+import poker.game.server.TableRandom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HandRankerBenchmark {
+    // Enough freshly dealt tables that the branch predictor can't learn the boards
+    private static final int TABLES = 1024;
+
+    private HandRanker[] rankers;
+    private PokerPlayer[] players;
+    private int next;
+
+    @Setup
+    public void setup() {
+        TableRandom random = TableRandom.seeded(42);
+        rankers = new HandRanker[TABLES];
+        players = new PokerPlayer[TABLES];
+        for (int i = 0; i < TABLES; i++) {
+            Poker poker = new Poker(new ArrayList<>(List.of("marco", "tiago", "ramos", "joao", "rita", "jorge")), random);
+            rankers[i] = new HandRanker(poker);
+            players[i] = poker.getPlayers().get(i % poker.getPlayers().size());
+        }
+    }
+
+    @Benchmark
+    public HandRank analyzeHand() {
+        int i = next++ & (TABLES - 1);
+        return rankers[i].analyzeHand(players[i]);
+    }
+
+    @Benchmark
+    public ArrayList<PokerPlayer> getWinners() {
+        return rankers[next++ & (TABLES - 1)].getWinners();
+    }
+}
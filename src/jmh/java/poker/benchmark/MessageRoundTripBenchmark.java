@@ -0,0 +1,71 @@
+package poker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import poker.connection.protocol.codec.Codecs;
+import poker.connection.protocol.codec.MessageCodec;
+import poker.connection.protocol.message.JsonPayload;
+import poker.connection.protocol.message.Message;
+import poker.game.common.GameSerializer;
+import poker.game.common.GameState;
+import poker.game.common.GameStateDelta;
+import poker.game.common.PokerPlayer;
+import poker.game.server.Poker;
+import poker.game.server.TableRandom;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static poker.connection.protocol.message.State.MATCH_DISPLAY;
+import static poker.connection.protocol.message.State.MATCH_PLAY;
+import static poker.connection.protocol.message.Status.OK;
+import static poker.connection.protocol.message.Status.REQUEST;
+
+/*
+    Messages as they travel between server and client: built and encoded on one side, decoded on the other and, for
+    the game state updates, parsed back into a GameState. Each benchmark runs once per codec.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageRoundTripBenchmark {
+    @Param({"json", "binary"})
+    public String codecName;
+
+    private MessageCodec codec;
+    private GameState gameState;
+    private GameState previousGameState;
+    private GameStateDelta delta;
+
+    @Setup
+    public void setup() {
+        codec = Codecs.forName(codecName);
+        Poker poker = new Poker(new ArrayList<>(List.of("marco", "tiago", "ramos", "joao", "rita", "jorge")), TableRandom.seeded(42));
+        previousGameState = poker.getGameStateToSend(0);
+        poker.takeAction(PokerPlayer.PLAYER_ACTION.CALL, 0);
+        gameState = poker.getGameStateToSend(0);
+        delta = GameStateDelta.diff(previousGameState, gameState, 2);
+    }
+
+    @Benchmark
+    public String playerMove() throws IOException {
+        Message message = new Message(MATCH_PLAY, OK, null, Map.of("action", "bet", "amount", "200"), "token");
+        return codec.decode(codec.encode(message)).getAttribute("action");
+    }
+
+    @Benchmark
+    public GameState gameState() throws IOException {
+        JsonPayload payload = writer -> GameSerializer.write(gameState, writer);
+        Message message = new Message(MATCH_DISPLAY, REQUEST, null, Map.of("gameState", payload), "token");
+        return GameSerializer.fromJson(codec.decode(codec.encode(message)).getAttribute("gameState"));
+    }
+
+    @Benchmark
+    public GameState gameStateDelta() throws IOException {
+        JsonPayload payload = writer -> GameSerializer.write(delta, writer);
+        Message message = new Message(MATCH_DISPLAY, REQUEST, null, Map.of("gameDelta", payload), "token");
+        return GameSerializer.deltaFromJson(codec.decode(codec.encode(message)).getAttribute("gameDelta")).applyTo(previousGameState);
+    }
+}
@@ -0,0 +1,71 @@
+package poker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import poker.game.common.PokerPlayer;
+import poker.game.server.Poker;
+import poker.game.server.TableRandom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+    One hand of a 6 player table played to the showdown the way Game drives it: a view for the player to act before
+    every action, then the winners and the payout. Every seat calls or checks, so all hands reach the river.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PokerHandBenchmark {
+    private TableRandom random;
+    private Poker poker;
+
+    @Setup
+    public void setup() {
+        random = TableRandom.seeded(42);
+        poker = newTable();
+    }
+
+    private Poker newTable() {
+        return new Poker(new ArrayList<>(List.of("marco", "tiago", "ramos", "joao", "rita", "jorge")), random);
+    }
+
+    @Benchmark
+    public int playHand() {
+        if (poker.getIsGameOver()) {
+            poker = newTable();
+        }
+        int actions = 0;
+        while (!poker.getIsHandOver()) {
+            PokerPlayer player = poker.getPlayers().get(poker.getCurrPlayer());
+            poker.getGameStateToSend(poker.getCurrPlayer());
+            if (player.getBet() < poker.getCurrBet()) {
+                poker.takeAction(PokerPlayer.PLAYER_ACTION.CALL, 0);
+            } else {
+                poker.takeAction(PokerPlayer.PLAYER_ACTION.CHECK, 0);
+            }
+            actions++;
+        }
+        poker.endHand();
+        return actions;
+    }
+
+    @Benchmark
+    public int playHandWithoutViews() {
+        if (poker.getIsGameOver()) {
+            poker = newTable();
+        }
+        int actions = 0;
+        while (!poker.getIsHandOver()) {
+            PokerPlayer player = poker.getPlayers().get(poker.getCurrPlayer());
+            if (player.getBet() < poker.getCurrBet()) {
+                poker.takeAction(PokerPlayer.PLAYER_ACTION.CALL, 0);
+            } else {
+                poker.takeAction(PokerPlayer.PLAYER_ACTION.CHECK, 0);
+            }
+            actions++;
+        }
+        poker.endHand();
+        return actions;
+    }
+}
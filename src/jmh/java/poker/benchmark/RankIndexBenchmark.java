@@ -0,0 +1,53 @@
+package poker.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import poker.connection.protocol.Connection;
+import poker.connection.server.queue.RankIndex;
+import poker.connection.server.queue.Threshold;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// A burst of players joining the ranked queue at once, as after a restart, matched into tables until none is left
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RankIndexBenchmark {
+    @Param({"1000", "20000"})
+    public int queued;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+    private RankIndex index;
+    private long players;
+    private long now;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        index = new RankIndex();
+        now = System.nanoTime();
+        for (int i = 0; i < queued; i++) {
+            join();
+        }
+    }
+
+    @Benchmark
+    public int matchBurst() {
+        int tables = 0;
+        ArrayList<Connection> match;
+        while (!(match = index.findMatch(now)).isEmpty()) {
+            for (Connection connection : match) {
+                index.remove(connection);
+            }
+            tables++;
+        }
+        return tables;
+    }
+
+    // Ranks spread like a real ladder, thresholds as if players had waited for up to three relaxations
+    private void join() {
+        int rank = (int) Math.max(0, 1000 + random.nextDouble() * 600 - 300 + random.nextDouble() * 600 - 300);
+        Threshold threshold = new Threshold(rank, now - random.nextInt(4) * Threshold.RELAX_INTERVAL_NANOS);
+        index.add(new Connection("player" + players++, null, null, rank), threshold, now);
+    }
+}
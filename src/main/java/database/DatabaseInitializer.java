@@ -1,5 +1,6 @@
 package database;
 
+import org.mindrot.jbcrypt.BCrypt;
 import poker.connection.server.database.DatabaseInterface;
 
 import java.io.IOException;
@@ -14,16 +15,20 @@ public class DatabaseInitializer {
     }
 
     private static void populate(DatabaseInterface database) {
-        database.registerUser("marco", "marco", 1000);
-        database.registerUser("tiago", "tiago", 2000);
-        database.registerUser("ramos", "ramos", 1000);
-        database.registerUser("joao", "joao", 1500);
-        database.registerUser("rita", "rita", 500);
-        database.registerUser("jorge", "jorge", 0);
-        database.registerUser("afonso", "afonso", 5000);
-        database.registerUser("camilla", "camilla", 5000);
-        database.registerUser("baquero", "baquero");
-        database.registerUser("alberto", "alberto");
-        database.registerUser("veronica", "veronica");
+        database.registerUser("marco", hash("marco"), 1000);
+        database.registerUser("tiago", hash("tiago"), 2000);
+        database.registerUser("ramos", hash("ramos"), 1000);
+        database.registerUser("joao", hash("joao"), 1500);
+        database.registerUser("rita", hash("rita"), 500);
+        database.registerUser("jorge", hash("jorge"), 0);
+        database.registerUser("afonso", hash("afonso"), 5000);
+        database.registerUser("camilla", hash("camilla"), 5000);
+        database.registerUser("baquero", hash("baquero"));
+        database.registerUser("alberto", hash("alberto"));
+        database.registerUser("veronica", hash("veronica"));
+    }
+
+    private static String hash(String password) {
+        return BCrypt.hashpw(password, BCrypt.gensalt());
     }
 }
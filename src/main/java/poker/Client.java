@@ -1,9 +1,11 @@
 package poker;
 
+import poker.client.ConsolePlayer;
 import poker.client.state.ClientState;
 import poker.client.state.ConnectionRecovery;
 import poker.connection.client.ClientChannelFactory;
 import poker.connection.protocol.channels.ClientChannel;
+import poker.connection.protocol.exceptions.ClosedConnectionException;
 
 import java.net.ConnectException;
 
@@ -38,8 +40,12 @@ public class Client {
     }
 
     private void init() {
-        ClientState state = new ConnectionRecovery(channel);
+        ClientState state = new ConnectionRecovery(channel, new ConsolePlayer());
 
         while ((state = state.handle()) != null) ;
+        // The last answer may still be queued, and the writer doesn't keep the process alive
+        try {
+            channel.flush(2);
+        } catch (ClosedConnectionException ignored) {}
     }
 }
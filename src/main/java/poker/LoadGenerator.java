@@ -0,0 +1,125 @@
+package poker;
+
+import poker.client.bot.Bot;
+import poker.client.bot.BotSettings;
+import poker.client.bot.LoadStatistics;
+import poker.client.bot.Strategy;
+import poker.connection.utils.TlsContexts;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+public class LoadGenerator {
+    private static final long POLL_MILLIS = 100;
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Arguments: <host> <port> [-b <bots>] [-d <seconds>] [-s <strategy>[,<strategy>...]] [-t <think ms>] [-x <drop rate>] [-w <reconnect ms>] [-g <grace seconds>] [-u <prefix>] [-v]");
+            return;
+        }
+
+        String host = args[0];
+        int port = Integer.parseInt(args[1]);
+        int bots = 6;
+        long duration = 60;
+        String[] strategies = {"random"};
+        long thinkMillis = 0;
+        double dropRate = 0;
+        long reconnectMillis = 1000;
+        long graceSeconds = 60;
+        String prefix = "bot";
+        boolean verbose = false;
+        try {
+            for (int i = 2; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-b" -> bots = Integer.parseInt(args[++i]);
+                    case "-d" -> duration = Long.parseLong(args[++i]);
+                    case "-s" -> strategies = args[++i].split(",");
+                    case "-t" -> thinkMillis = Long.parseLong(args[++i]);
+                    case "-x" -> dropRate = Double.parseDouble(args[++i]);
+                    case "-w" -> reconnectMillis = Long.parseLong(args[++i]);
+                    case "-g" -> graceSeconds = Long.parseLong(args[++i]);
+                    case "-u" -> prefix = args[++i];
+                    case "-v" -> verbose = true;
+                    default -> {
+                        System.out.println("Unknown option " + args[i]);
+                        return;
+                    }
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            System.out.println("Invalid arguments: " + e.getMessage());
+            return;
+        }
+        for (String strategy : strategies) {
+            if (Strategy.forName(strategy) == null) {
+                System.out.println("Unknown strategy " + strategy + ", expected random, fold or all_in");
+                return;
+            }
+        }
+
+        long start = System.nanoTime();
+        BotSettings settings = new BotSettings(host, port, "load-test", thinkMillis, dropRate, reconnectMillis,
+                start + TimeUnit.SECONDS.toNanos(duration), verbose);
+        new LoadGenerator().run(bots, strategies, prefix, settings, start, graceSeconds);
+    }
+
+    private void run(int numBots, String[] strategies, String prefix, BotSettings settings, long start, long graceSeconds) {
+        LoadStatistics statistics = new LoadStatistics();
+        SplittableRandom random = new SplittableRandom();
+        ArrayList<Bot> bots = new ArrayList<>();
+        ArrayList<Thread> threads = new ArrayList<>();
+
+        System.out.printf("Starting %d bots against %s:%d%n", numBots, settings.host(), settings.port());
+        for (int i = 0; i < numBots; i++) {
+            String username = prefix + "-" + i;
+            Bot bot = new Bot(username, Strategy.forName(strategies[i % strategies.length]), random.split(), settings, statistics);
+            bots.add(bot);
+            threads.add(Thread.ofVirtual().name(username).start(bot));
+        }
+
+        try {
+            awaitBots(bots, threads, settings.deadlineNanos(), settings.deadlineNanos() + TimeUnit.SECONDS.toNanos(graceSeconds));
+        } catch (InterruptedException ignored) {}
+        long elapsed = System.nanoTime() - start;
+
+        int waiting = 0;
+        int stuck = 0;
+        for (int i = 0; i < bots.size(); i++) {
+            Bot bot = bots.get(i);
+            if (threads.get(i).isAlive()) {
+                if (bot.isWaitingForMatch()) {
+                    waiting++;
+                } else {
+                    stuck++;
+                }
+            }
+            bot.stop();
+        }
+
+        System.out.println(statistics.report(numBots, elapsed));
+        System.out.printf("Stopped at the end: %d waiting for a table, %d still waiting on the server after the grace period%n", waiting, stuck);
+        System.out.println("TLS handshakes: " + TlsContexts.CLIENT_HANDSHAKES);
+    }
+
+    /*
+        Past the deadline bots stop requeueing, so once the games in progress end the rest can only be waiting for a
+        table. Games get until the grace deadline to end, bots that are still busy after it are reported as stuck.
+     */
+    private void awaitBots(ArrayList<Bot> bots, ArrayList<Thread> threads, long deadline, long graceDeadline) throws InterruptedException {
+        while (System.nanoTime() < graceDeadline) {
+            boolean playing = false;
+            for (int i = 0; i < bots.size(); i++) {
+                if (threads.get(i).isAlive() && (System.nanoTime() < deadline || !bots.get(i).isWaitingForMatch())) {
+                    playing = true;
+                    break;
+                }
+            }
+            if (!playing) {
+                return;
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+}
@@ -3,14 +3,25 @@ package poker;
 import poker.connection.protocol.Connection;
 import poker.connection.protocol.exceptions.ClosedConnectionException;
 import poker.connection.server.authentication.AuthenticationManager;
+import poker.connection.server.authentication.PasswordHasher;
 import poker.connection.server.database.DatabaseInterface;
+import poker.connection.server.database.SessionStore;
+import poker.connection.server.game.EventGame;
+import poker.connection.server.game.Game;
+import poker.connection.server.game.GameRoom;
+import poker.connection.server.game.TableEngine;
+import poker.connection.server.heartbeat.Heartbeat;
 import poker.connection.server.queue.Queuer;
 import poker.connection.server.queue.RankedQueuer;
 import poker.connection.server.queue.SimpleQueuer;
+import poker.connection.utils.TlsContexts;
+import poker.game.server.TableRandom;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class Server {
@@ -18,19 +29,33 @@ public class Server {
     private final Queuer queuer;
     private final boolean loggingEnabled;
     private final boolean rankedMode;
+    private final boolean nioTransport;
+    private final TableEngine tableEngine;
+    private final TableRandom.Mode shuffleMode;
+    private final long shuffleSeed;
+    private final AtomicLong tablesCreated = new AtomicLong();
     private final DatabaseInterface database = new DatabaseInterface();
+    private final PasswordHasher passwordHasher = new PasswordHasher();
+    private final SessionStore sessionStore;
+    private final Heartbeat heartbeat = new Heartbeat();
     private final Set<Connection> connections = new HashSet<>();
     private final ReentrantLock connectionLock = new ReentrantLock();
 
+    private static final int SHUTDOWN_FLUSH_SECONDS = 2;
+
     public static void main(String[] args) {
         if (args.length < 1) {
-            System.out.println("Arguments: <port> [-l] [-r]");
+            System.out.println("Arguments: <port> [-l] [-r] [-n] [-e] [-c | -s <seed>]");
             return;
         }
 
         int port = Integer.parseInt(args[0]);
         boolean loggingEnabled = false;
         boolean rankedMode = false;
+        boolean nioTransport = false;
+        boolean eventEngine = false;
+        TableRandom.Mode shuffleMode = TableRandom.Mode.FAST;
+        long shuffleSeed = 0;
         for (int i = 1; i < args.length; i++) {
             switch (args[i]) {
                 case "-l":
@@ -41,19 +66,45 @@ public class Server {
                     rankedMode = true;
                     System.out.println("Ranked mode enabled");
                     break;
+                case "-n":
+                    nioTransport = true;
+                    System.out.println("NIO transport enabled");
+                    break;
+                case "-e":
+                    eventEngine = true;
+                    System.out.println("Event-loop table engine enabled");
+                    break;
+                case "-c":
+                    shuffleMode = TableRandom.Mode.SECURE;
+                    System.out.println("Secure shuffling enabled");
+                    break;
+                case "-s":
+                    if (i + 1 >= args.length) {
+                        System.out.println("Missing seed after -s");
+                        return;
+                    }
+                    shuffleMode = TableRandom.Mode.SEEDED;
+                    shuffleSeed = Long.parseLong(args[++i]);
+                    System.out.println("Seeded shuffling enabled with seed " + shuffleSeed);
+                    break;
                 default:
-                    System.out.println("Usage: java TimeServer <port> [-l] [-r]");
+                    System.out.println("Usage: java TimeServer <port> [-l] [-r] [-n] [-e] [-c | -s <seed>]");
                     return;
             }
         }
 
-        Server server = new Server(port, loggingEnabled, rankedMode);
+        Server server = new Server(port, loggingEnabled, rankedMode, nioTransport, eventEngine, shuffleMode, shuffleSeed);
         server.init();
     }
 
-    private Server(int port, boolean loggingEnabled, boolean rankedMode) {
+    private Server(int port, boolean loggingEnabled, boolean rankedMode, boolean nioTransport, boolean eventEngine, TableRandom.Mode shuffleMode, long shuffleSeed) {
         this.loggingEnabled = loggingEnabled;
         this.rankedMode = rankedMode;
+        this.nioTransport = nioTransport;
+        this.tableEngine = eventEngine ? new TableEngine() : null;
+        this.shuffleMode = shuffleMode;
+        this.shuffleSeed = shuffleSeed;
+        this.sessionStore = new SessionStore(this, database);
         this.authenticationManager = new AuthenticationManager(this, port);
         if (rankedMode) {
             this.queuer = new RankedQueuer(this);
@@ -70,6 +121,14 @@ public class Server {
         return database;
     }
 
+    public PasswordHasher getPasswordHasher() {
+        return passwordHasher;
+    }
+
+    public SessionStore getSessionStore() {
+        return sessionStore;
+    }
+
     public boolean isLoggingEnabled() {
         return loggingEnabled;
     }
@@ -78,28 +137,59 @@ public class Server {
         return rankedMode;
     }
 
+    public boolean isNioTransportEnabled() {
+        return nioTransport;
+    }
+
+    // Tables are either a thread each or shared out between the shards of the engine
+    public GameRoom newGame(ArrayList<Connection> connections) {
+        if (tableEngine != null) {
+            return new EventGame(this, tableEngine, connections);
+        }
+        return new Game(this, connections);
+    }
+
+    // Seeded tables get consecutive seeds in creation order, so a run can be replayed from the server seed
+    public TableRandom newTableRandom() {
+        return switch (shuffleMode) {
+            case FAST -> TableRandom.fast();
+            case SECURE -> TableRandom.secure();
+            case SEEDED -> TableRandom.seeded(shuffleSeed + tablesCreated.getAndIncrement());
+        };
+    }
+
     private void init() {
         startServices();
         System.out.println("Press [ENTER] to stop the server\n");
         new Scanner(System.in).nextLine();
         interruptServices();
         disconnect();
+        log("TLS handshakes: " + TlsContexts.SERVER_HANDSHAKES);
+        passwordHasher.shutdown();
+        sessionStore.close();
     }
 
     private void startServices() {
+        sessionStore.start();
         authenticationManager.start();
         queuer.start();
+        heartbeat.start();
     }
 
     private void interruptServices() {
         authenticationManager.interrupt();
         queuer.interrupt();
+        heartbeat.stop();
+        if (tableEngine != null) {
+            tableEngine.stop();
+        }
     }
 
     public void queuePlayer(Connection connection) {
         connectionLock.lock();
         connections.add(connection);
         connectionLock.unlock();
+        heartbeat.track(connection.getChannel());
         queuer.queuePlayer(connection);
     }
 
@@ -115,6 +205,12 @@ public class Server {
                 log("Channel was already closed for " + connection.getUsername() + "\n");
             }
         }
+        // Writes are queued, so they are waited for before the process exits
+        for (Connection connection : connections) {
+            try {
+                connection.getChannel().flush(SHUTDOWN_FLUSH_SECONDS);
+            } catch (ClosedConnectionException ignored) {}
+        }
         connectionLock.unlock();
         log("Server stopped");
     }
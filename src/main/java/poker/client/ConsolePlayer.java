@@ -0,0 +1,71 @@
+package poker.client;
+
+import poker.game.client.PokerClientGUI;
+import poker.game.common.GameState;
+import poker.utils.Pair;
+import poker.utils.UserInput;
+
+public class ConsolePlayer implements PlayerInterface {
+    private final PokerClientGUI gui = new PokerClientGUI();
+
+    @Override
+    public String retrieveSessionToken() {
+        LocalToken token = LocalToken.retrieve();
+        return token != null ? token.toString() : null;
+    }
+
+    @Override
+    public void saveSessionToken(String sessionToken) {
+        new LocalToken(sessionToken).save();
+    }
+
+    @Override
+    public boolean intendsRecovery() {
+        return askYesOrNo("Do you wish to recover your previous session? (Y/N)", "N");
+    }
+
+    @Override
+    public Pair<String, String> askCredentials() {
+        String username = new UserInput().nextLine("Enter your username:");
+        String password = new UserInput().nextLine("Enter your password:");
+        return new Pair<>(username, password);
+    }
+
+    @Override
+    public void matchmakingStarted() {
+        System.out.println("Waiting for other players to join...");
+    }
+
+    @Override
+    public void matchStarted() {
+        System.out.println("Game is starting...");
+    }
+
+    @Override
+    public void display(GameState gameState) {
+        gui.display(gameState);
+    }
+
+    @Override
+    public Pair<String, Integer> askMove(GameState gameState) throws Exception {
+        return gui.askMove(gameState);
+    }
+
+    @Override
+    public boolean intendsRequeue() {
+        return askYesOrNo("Do you want to requeue? (Y/N)", "");
+    }
+
+    @Override
+    public void showMessage(String message) {
+        System.out.println(message);
+    }
+
+    private boolean askYesOrNo(String prompt, String defaultValue) {
+        String input = new UserInput().nextLine(prompt, defaultValue);
+        while (!input.equalsIgnoreCase("Y") && !input.equalsIgnoreCase("N")) {
+            input = new UserInput().nextLine("Invalid input. Please enter Y or N.", defaultValue);
+        }
+        return input.equalsIgnoreCase("Y");
+    }
+}
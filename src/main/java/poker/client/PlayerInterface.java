@@ -0,0 +1,34 @@
+package poker.client;
+
+import poker.game.common.GameState;
+import poker.utils.Pair;
+
+/*
+    Whoever sits behind a client: the client states drive the protocol and ask it for every decision. ConsolePlayer
+    asks a person through stdin, the load generator's bots ask a strategy.
+ */
+public interface PlayerInterface {
+
+    // Session token saved by a previous connection, null if there is none
+    String retrieveSessionToken();
+
+    void saveSessionToken(String sessionToken);
+
+    boolean intendsRecovery();
+
+    // Username and password
+    Pair<String, String> askCredentials();
+
+    void matchmakingStarted();
+
+    void matchStarted();
+
+    void display(GameState gameState);
+
+    // Action and amount, may be interrupted when the server gives up waiting for the move
+    Pair<String, Integer> askMove(GameState gameState) throws Exception;
+
+    boolean intendsRequeue();
+
+    void showMessage(String message);
+}
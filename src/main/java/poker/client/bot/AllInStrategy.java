@@ -0,0 +1,16 @@
+package poker.client.bot;
+
+import poker.game.common.GameState;
+import poker.game.common.PokerPlayer;
+import poker.utils.Pair;
+
+import java.util.random.RandomGenerator;
+
+// Shoves every hand, so every hand is an all-in showdown and games end in a few hands
+public class AllInStrategy implements Strategy {
+
+    @Override
+    public Pair<String, Integer> chooseMove(GameState gameState, RandomGenerator random) {
+        return new Pair<>(PokerPlayer.PLAYER_ACTION.ALL_IN.toString(), 0);
+    }
+}
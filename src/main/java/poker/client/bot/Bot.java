@@ -0,0 +1,163 @@
+package poker.client.bot;
+
+import poker.client.PlayerInterface;
+import poker.client.state.ClientState;
+import poker.client.state.ConnectionRecovery;
+import poker.connection.client.ClientChannelFactory;
+import poker.connection.protocol.channels.ClientChannel;
+import poker.game.common.GameState;
+import poker.utils.Pair;
+
+import java.io.IOException;
+import java.util.random.RandomGenerator;
+
+/*
+    A synthetic player for the load generator. It runs the same client states as a person would, from session
+    recovery to matchmaking and matches, and answers their questions with its strategy. When it drops its connection
+    on purpose it connects again and recovers its session, which brings it back to its match if it is still running.
+ */
+public class Bot implements PlayerInterface, Runnable {
+    private final String username;
+    private final Strategy strategy;
+    private final RandomGenerator random;
+    private final BotSettings settings;
+    private final LoadStatistics statistics;
+
+    private volatile ClientChannel channel;
+    private volatile String sessionToken = null;
+    private volatile boolean dropped = false;
+    private volatile boolean finished = false;
+    private volatile boolean stopped = false;
+    private volatile boolean waitingForMatch = false;
+    private volatile long matchmakingStartedAt = 0;
+    private volatile long moveChosenAt = 0;
+    private volatile String lastMessage = null;
+
+    public Bot(String username, Strategy strategy, RandomGenerator random, BotSettings settings, LoadStatistics statistics) {
+        this.username = username;
+        this.strategy = strategy;
+        this.random = random;
+        this.settings = settings;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void run() {
+        while (!stopped) {
+            try {
+                channel = new ClientChannelFactory().createChannel(settings.host(), settings.port());
+            } catch (Exception e) {
+                showMessage("Could not connect: " + e.getMessage());
+                break;
+            }
+            if (stopped) {
+                channel.close();
+                break;
+            }
+
+            ClientState state = new ConnectionRecovery(channel, this);
+            while ((state = state.handle()) != null) ;
+
+            if (!dropped) {
+                break;
+            }
+            dropped = false;
+            try {
+                Thread.sleep(settings.reconnectMillis());
+            } catch (InterruptedException e) {
+                break;
+            }
+            statistics.reconnected();
+        }
+        if (!finished && !stopped) {
+            statistics.failed();
+            System.out.println(username + " stopped: " + lastMessage);
+        }
+    }
+
+    // Ends the bot wherever it is, for the ones still waiting for a table when the load test is over
+    public void stop() {
+        stopped = true;
+        ClientChannel channel = this.channel;
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    public boolean isWaitingForMatch() {
+        return waitingForMatch;
+    }
+
+    @Override
+    public String retrieveSessionToken() {
+        return sessionToken;
+    }
+
+    @Override
+    public void saveSessionToken(String sessionToken) {
+        this.sessionToken = sessionToken;
+    }
+
+    @Override
+    public boolean intendsRecovery() {
+        return true;
+    }
+
+    @Override
+    public Pair<String, String> askCredentials() {
+        return new Pair<>(username, settings.password());
+    }
+
+    @Override
+    public void matchmakingStarted() {
+        matchmakingStartedAt = System.nanoTime();
+        waitingForMatch = true;
+    }
+
+    @Override
+    public void matchStarted() {
+        waitingForMatch = false;
+        statistics.matchmade(System.nanoTime() - matchmakingStartedAt);
+    }
+
+    @Override
+    public void display(GameState gameState) {
+        long chosenAt = moveChosenAt;
+        if (chosenAt != 0) {
+            statistics.actionAnswered(System.nanoTime() - chosenAt);
+            moveChosenAt = 0;
+        }
+    }
+
+    @Override
+    public Pair<String, Integer> askMove(GameState gameState) throws Exception {
+        if (settings.thinkMillis() > 0) {
+            Thread.sleep(settings.thinkMillis());
+        }
+        if (random.nextDouble() < settings.dropRate()) {
+            dropped = true;
+            statistics.dropped();
+            channel.close();
+            throw new IOException("Connection dropped on purpose");
+        }
+        Pair<String, Integer> move = strategy.chooseMove(gameState, random);
+        moveChosenAt = System.nanoTime();
+        return move;
+    }
+
+    @Override
+    public boolean intendsRequeue() {
+        statistics.gameFinished();
+        boolean requeue = !stopped && System.nanoTime() < settings.deadlineNanos();
+        finished = !requeue;
+        return requeue;
+    }
+
+    @Override
+    public void showMessage(String message) {
+        lastMessage = message;
+        if (settings.verbose()) {
+            System.out.println("[" + username + "] " + message);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package poker.client.bot;
+
+/*
+    What every bot of a load test shares: where to connect, how long to think before each move, the chance of dropping
+    the connection instead of moving and how long to wait before recovering the session, and when to stop requeueing.
+ */
+public record BotSettings(String host, int port, String password, long thinkMillis, double dropRate, long reconnectMillis,
+                          long deadlineNanos, boolean verbose) {
+}
@@ -0,0 +1,17 @@
+package poker.client.bot;
+
+import poker.game.common.GameState;
+import poker.game.common.PokerPlayer;
+import poker.utils.Pair;
+
+import java.util.random.RandomGenerator;
+
+// Folds whenever there is a bet to face and checks otherwise, so hands end after the blinds
+public class FoldStrategy implements Strategy {
+
+    @Override
+    public Pair<String, Integer> chooseMove(GameState gameState, RandomGenerator random) {
+        PokerPlayer.PLAYER_ACTION action = gameState.getCurrBet() != 0 ? PokerPlayer.PLAYER_ACTION.FOLD : PokerPlayer.PLAYER_ACTION.CHECK;
+        return new Pair<>(action.toString(), 0);
+    }
+}
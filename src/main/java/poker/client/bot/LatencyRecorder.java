@@ -0,0 +1,40 @@
+package poker.client.bot;
+
+import java.util.Arrays;
+
+// Keeps every sample, a load test records a few hundred thousand at most
+public class LatencyRecorder {
+    private long[] samples = new long[1024];
+    private int count = 0;
+
+    public synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    // Nearest rank percentile in nanoseconds, 0 without samples
+    public synchronized long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * count);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    public String summary() {
+        return String.format("%d samples, p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, max %.1f ms",
+                getCount(), millis(percentile(50)), millis(percentile(90)), millis(percentile(99)), millis(percentile(100)));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
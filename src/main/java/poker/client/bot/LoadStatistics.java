@@ -0,0 +1,55 @@
+package poker.client.bot;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static poker.game.common.PokerConstants.NUM_PLAYERS;
+
+public class LoadStatistics {
+    private final LatencyRecorder matchmaking = new LatencyRecorder();
+    private final LatencyRecorder actions = new LatencyRecorder();
+    private final AtomicInteger gamesFinished = new AtomicInteger();
+    private final AtomicInteger drops = new AtomicInteger();
+    private final AtomicInteger reconnects = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    // From accepting matchmaking to the game start request
+    public void matchmade(long nanos) {
+        matchmaking.record(nanos);
+    }
+
+    // From choosing a move to the game state update that follows it
+    public void actionAnswered(long nanos) {
+        actions.record(nanos);
+    }
+
+    // Counted once per seat, so a table adds NUM_PLAYERS
+    public void gameFinished() {
+        gamesFinished.incrementAndGet();
+    }
+
+    public void dropped() {
+        drops.incrementAndGet();
+    }
+
+    public void reconnected() {
+        reconnects.incrementAndGet();
+    }
+
+    public void failed() {
+        failures.incrementAndGet();
+    }
+
+    public String report(int bots, long elapsedNanos) {
+        double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        double games = gamesFinished.get() / (double) NUM_PLAYERS;
+        return String.join("\n",
+                String.format("Bots: %d (%d failed)", bots, failures.get()),
+                String.format("Elapsed: %.1f s", seconds),
+                String.format("Games: %.1f finished, %.3f games/s", games, games / seconds),
+                "Matchmaking latency: " + matchmaking.summary(),
+                "Action round trip: " + actions.summary(),
+                String.format("Drops: %d, reconnects: %d", drops.get(), reconnects.get())
+        );
+    }
+}
@@ -0,0 +1,47 @@
+package poker.client.bot;
+
+import poker.game.common.GameState;
+import poker.game.common.PokerPlayer;
+import poker.utils.Pair;
+
+import java.util.random.RandomGenerator;
+
+/*
+    Picks one of the moves PokerClientGUI would offer, mostly checking or calling so that hands reach the later
+    streets, with the occasional fold, bet of one to three times the minimum, or all in.
+ */
+public class RandomStrategy implements Strategy {
+
+    @Override
+    public Pair<String, Integer> chooseMove(GameState gameState, RandomGenerator random) {
+        int currBet = gameState.getCurrBet();
+        PokerPlayer player = gameState.getPlayers().get(gameState.getPlayer());
+        int toCall = currBet - player.getTurnBet();
+        int roll = random.nextInt(100);
+
+        if (roll < 10 && currBet != 0) {
+            return move(PokerPlayer.PLAYER_ACTION.FOLD, 0);
+        }
+        if (roll < 30 && player.getMoney() > currBet) {
+            int minBet = Math.max(toCall, gameState.getBigBlindBet());
+            int amount = minBet * (1 + random.nextInt(3));
+            if (amount < player.getMoney()) {
+                return move(PokerPlayer.PLAYER_ACTION.BET, amount);
+            }
+        }
+        if (roll < 33) {
+            return move(PokerPlayer.PLAYER_ACTION.ALL_IN, 0);
+        }
+        if (toCall <= 0) {
+            return move(PokerPlayer.PLAYER_ACTION.CHECK, 0);
+        }
+        if (player.getMoney() > toCall) {
+            return move(PokerPlayer.PLAYER_ACTION.CALL, 0);
+        }
+        return move(PokerPlayer.PLAYER_ACTION.ALL_IN, 0);
+    }
+
+    private static Pair<String, Integer> move(PokerPlayer.PLAYER_ACTION action, int amount) {
+        return new Pair<>(action.toString(), amount);
+    }
+}
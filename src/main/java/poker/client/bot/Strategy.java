@@ -0,0 +1,21 @@
+package poker.client.bot;
+
+import poker.game.common.GameState;
+import poker.utils.Pair;
+
+import java.util.random.RandomGenerator;
+
+public interface Strategy {
+
+    // Action and amount for the player whose turn it is, as PokerClientGUI.askMove returns them
+    Pair<String, Integer> chooseMove(GameState gameState, RandomGenerator random);
+
+    static Strategy forName(String name) {
+        return switch (name) {
+            case "random" -> new RandomStrategy();
+            case "fold" -> new FoldStrategy();
+            case "all_in" -> new AllInStrategy();
+            default -> null;
+        };
+    }
+}
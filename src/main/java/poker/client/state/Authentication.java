@@ -1,49 +1,65 @@
 package poker.client.state;
 
-import poker.client.LocalToken;
+import poker.client.PlayerInterface;
 import poker.connection.protocol.channels.ClientChannel;
 import poker.connection.protocol.exceptions.ChannelException;
 import poker.connection.protocol.exceptions.ClosedConnectionException;
 import poker.connection.protocol.exceptions.UnexpectedMessageException;
 import poker.connection.protocol.message.Message;
-import poker.utils.UserInput;
+import poker.utils.Pair;
 
 public class Authentication extends ClientState {
 
-    public Authentication(ClientChannel channel) {
-        super(channel);
+    // Credentials to send again when the server was too busy to check them, null to ask the player
+    private final Pair<String, String> pendingCredentials;
+
+    public Authentication(ClientChannel channel, PlayerInterface player) {
+        this(channel, player, null);
+    }
+
+    private Authentication(ClientChannel channel, PlayerInterface player, Pair<String, String> pendingCredentials) {
+        super(channel, player);
+        this.pendingCredentials = pendingCredentials;
     }
 
     @Override
     public ClientState handle() {
 
-        String username = new UserInput().nextLine("Enter your username:");
-        String password = new UserInput().nextLine("Enter your password:");
+        Pair<String, String> credentials = pendingCredentials != null ? pendingCredentials : player.askCredentials();
 
         Message response;
         try {
-            response = channel.authenticate(username, password);
+            response = channel.authenticate(credentials.getFirst(), credentials.getSecond());
         } catch (ClosedConnectionException e) {
-            System.out.println("Connection to the server was lost.\n" + e.getMessage());
+            player.showMessage("Connection to the server was lost.\n" + e.getMessage());
             return null;
         } catch (ChannelException e) {
-            System.out.println("Error communicating with the server:\n" + e.getMessage());
+            player.showMessage("Error communicating with the server:\n" + e.getMessage());
             return null;
         }
 
-        System.out.println(response.getBody());
+        player.showMessage(response.getBody());
 
         if (response.isOk()) {
             return handleAuthResponse(response);
         }
 
-        return new Authentication(channel);
+        if (response.hasAttribute("retryAfter")) {
+            try {
+                Thread.sleep(response.getIntAttribute("retryAfter") * 1000L);
+            } catch (InterruptedException e) {
+                return null;
+            }
+            return new Authentication(channel, player, credentials);
+        }
+
+        return new Authentication(channel, player);
     }
 
     private ClientState handleAuthResponse(Message response){
 
         String sessionToken = response.getAttribute("sessionToken");
-        new LocalToken(sessionToken).save();
+        player.saveSessionToken(sessionToken);
         channel.setSessionToken(sessionToken);
 
         try {
@@ -52,21 +68,21 @@ public class Authentication extends ClientState {
             switch (message.getState()) {
                 case MATCHMAKING -> {
                     channel.acceptMatchmaking();
-                    return new Matchmaking(channel);
+                    return new Matchmaking(channel, player);
                 }
                 case MATCH_RECONNECT -> {
                     channel.acceptMatchReconnect();
-                    return new Match(channel);
+                    return new Match(channel, player);
                 }
                 default -> {
                     throw new UnexpectedMessageException("Unexpected message received after authentication: " + message);
                 }
             }
         } catch (ClosedConnectionException e) {
-            System.out.println("Connection to the server was lost.\n" + e.getMessage());
+            player.showMessage("Connection to the server was lost.\n" + e.getMessage());
             return null;
         } catch (ChannelException e) {
-            System.out.println("Failed communicating with the server after authentication:\n" + e.getMessage());
+            player.showMessage("Failed communicating with the server after authentication:\n" + e.getMessage());
             return null;
         }
     }
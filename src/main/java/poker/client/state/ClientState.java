@@ -1,13 +1,16 @@
 package poker.client.state;
 
+import poker.client.PlayerInterface;
 import poker.connection.protocol.channels.ClientChannel;
 
 public abstract class ClientState {
 
     protected final ClientChannel channel;
+    protected final PlayerInterface player;
 
-    protected ClientState (ClientChannel channel) {
+    protected ClientState (ClientChannel channel, PlayerInterface player) {
         this.channel = channel;
+        this.player = player;
     }
 
     public abstract ClientState handle();
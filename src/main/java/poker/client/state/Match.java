@@ -1,15 +1,15 @@
 package poker.client.state;
 
-import com.google.gson.Gson;
+import poker.client.PlayerInterface;
 import poker.connection.protocol.channels.ClientChannel;
 import poker.connection.protocol.exceptions.ChannelException;
 import poker.connection.protocol.exceptions.ClosedConnectionException;
 import poker.connection.protocol.exceptions.UnexpectedMessageException;
 import poker.connection.protocol.message.Message;
-import poker.game.client.PokerClientGUI;
+import poker.game.common.GameSerializer;
 import poker.game.common.GameState;
+import poker.game.common.GameStateDelta;
 import poker.utils.Pair;
-import poker.utils.UserInput;
 
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicReference;
@@ -18,10 +18,11 @@ import static poker.connection.protocol.message.State.MATCHMAKING;
 
 public class Match extends ClientState {
 
-    PokerClientGUI gui = new PokerClientGUI();
+    private GameState gameState = null;
+    private int gameStateVersion = 0;
 
-    public Match(ClientChannel channel) {
-        super(channel);
+    public Match(ClientChannel channel, PlayerInterface player) {
+        super(channel, player);
     }
 
     @Override
@@ -30,10 +31,10 @@ public class Match extends ClientState {
             Message message = channel.getRequest();
             return parseMessage(message);
         } catch (ClosedConnectionException e) {
-            System.out.println("Connection to the server was lost.\n" + e.getMessage());
+            player.showMessage("Connection to the server was lost.\n" + e.getMessage());
             return null;
         } catch (ChannelException e) {
-            System.out.println("Error communicating with the server:\n" + e.getMessage());
+            player.showMessage("Error communicating with the server:\n" + e.getMessage());
             return null;
         }
     }
@@ -51,27 +52,55 @@ public class Match extends ClientState {
                 return handleRequeue();
             }
             default -> {
-                System.out.println("Unexpected message received: " + message);
+                player.showMessage("Unexpected message received: " + message);
                 return null;
             }
         }
     }
 
     private ClientState handleMatchDisplay(Message message) {
-        String gameStateJson = message.getAttribute("gameState");
-        GameState gameState = new Gson().fromJson(gameStateJson, GameState.class);
-        gui.display(gameState);
+        try {
+            player.display(updateGameState(message));
+        } catch (UnexpectedMessageException e) {
+            player.showMessage("Error handling message:\n" + e.getMessage());
+            return null;
+        }
         return this;
     }
 
+    // The server sends a full snapshot when a match starts or is reconnected to, and deltas on top of it afterwards
+    private GameState updateGameState(Message message) throws UnexpectedMessageException {
+        if (message.hasAttribute("gameState")) {
+            gameState = GameSerializer.fromJson(message.getAttribute("gameState"));
+            Integer version = message.getIntAttribute("gameStateVersion");
+            gameStateVersion = version != null ? version : 0;
+        } else if (message.hasAttribute("gameDelta")) {
+            GameStateDelta delta = GameSerializer.deltaFromJson(message.getAttribute("gameDelta"));
+            if (gameState == null || delta.getBaseVersion() != gameStateVersion) {
+                throw new UnexpectedMessageException(String.format(
+                        "Game state delta for version %d does not apply to version %d",
+                        delta.getBaseVersion(), gameStateVersion)
+                );
+            }
+            gameState = delta.applyTo(gameState);
+            gameStateVersion = delta.getVersion();
+        }
+        return gameState;
+    }
+
     private ClientState handleMatchPlay(Message message) {
 
-        String gameStateJson = message.getAttribute("gameState");
-        GameState gameState = new Gson().fromJson(gameStateJson, GameState.class);
+        GameState gameState;
+        try {
+            gameState = updateGameState(message);
+        } catch (UnexpectedMessageException e) {
+            player.showMessage("Error handling message:\n" + e.getMessage());
+            return null;
+        }
 
         ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
         Future<Pair<String, Integer>> future = executor.submit(
-                () -> gui.askMove(gameState)
+                () -> player.askMove(gameState)
         );
 
         final AtomicReference<Message> messageWrapper = new AtomicReference<>();
@@ -81,10 +110,10 @@ public class Match extends ClientState {
                         Message incoming = channel.getRequest();
                         messageWrapper.set(incoming);
                     } catch (ClosedConnectionException e) {
-                        System.out.println("Connection to the server was lost.\n" + e.getMessage());
+                        player.showMessage("Connection to the server was lost.\n" + e.getMessage());
                         messageWrapper.set(null);
                     } catch (ChannelException e) {
-                        System.out.println("Error communicating with the server:\n" + e.getMessage());
+                        player.showMessage("Error communicating with the server:\n" + e.getMessage());
                         messageWrapper.set(null);
                     } finally {
                         future.cancel(true);
@@ -100,17 +129,17 @@ public class Match extends ClientState {
             if (messageWrapper.get() == null) {
                 return null;
             }
-            System.out.println("Timeout. You didn't make a move in time.");
+            player.showMessage("Timeout. You didn't make a move in time.");
             return null;
         } catch (InterruptedException | ExecutionException e) {
-            System.out.println("Error getting user input:\n" + e.getMessage());
+            player.showMessage("Error getting user input:\n" + e.getMessage());
             return null;
         }
 
         try {
             channel.sendPlayerMove(action.getFirst(), action.getSecond().toString());
         } catch (Exception e) {
-            System.out.println("Error communicating with the server:\n" + e.getMessage());
+            player.showMessage("Error communicating with the server:\n" + e.getMessage());
             return null;
         }
 
@@ -118,39 +147,31 @@ public class Match extends ClientState {
             timer.join();
             return parseMessage(messageWrapper.get());
         } catch (InterruptedException e) {
-            System.out.println("Error handling message:\n" + e.getMessage());
+            player.showMessage("Error handling message:\n" + e.getMessage());
             return null;
         }
     }
 
     private ClientState handleRequeue() {
-
-        System.out.println("Do you want to requeue? (Y/N)");
-        do {
-            String response = new UserInput().nextLine();
-            try {
-                if (response.equalsIgnoreCase("Y")) {
-                    channel.sendRequeueResponse(true);
-                    Message matchmakingMessage = channel.getRequest();
-                    if (matchmakingMessage.getState().equals(MATCHMAKING)) {
-                        channel.acceptMatchmaking();
-                        return new Matchmaking(channel);
-                    } else {
-                        throw new UnexpectedMessageException("Unexpected message received after requeueing: " + matchmakingMessage);
-                    }
-                } else if (response.equalsIgnoreCase("N")) {
-                    channel.sendRequeueResponse(false);
-                    return null;
-                } else {
-                    System.out.println("Invalid input. Please enter Y or N.");
-                }
-            } catch (ClosedConnectionException e) {
-                System.out.println("Connection to the server was lost.\n" + e.getMessage());
-                return null;
-            } catch (ChannelException e) {
-                System.out.println("Error communicating with the server:\n" + e.getMessage());
+        boolean requeue = player.intendsRequeue();
+        try {
+            channel.sendRequeueResponse(requeue);
+            if (!requeue) {
                 return null;
             }
-        } while (true);
+            Message matchmakingMessage = channel.getRequest();
+            if (matchmakingMessage.getState().equals(MATCHMAKING)) {
+                channel.acceptMatchmaking();
+                return new Matchmaking(channel, player);
+            } else {
+                throw new UnexpectedMessageException("Unexpected message received after requeueing: " + matchmakingMessage);
+            }
+        } catch (ClosedConnectionException e) {
+            player.showMessage("Connection to the server was lost.\n" + e.getMessage());
+            return null;
+        } catch (ChannelException e) {
+            player.showMessage("Error communicating with the server:\n" + e.getMessage());
+            return null;
+        }
     }
 }
@@ -1,32 +1,33 @@
 package poker.client.state;
 
+import poker.client.PlayerInterface;
 import poker.connection.protocol.channels.ClientChannel;
 import poker.connection.protocol.exceptions.ChannelException;
 import poker.connection.protocol.exceptions.ClosedConnectionException;
 
 public class Matchmaking extends ClientState {
 
-    public Matchmaking(ClientChannel channel) {
-        super(channel);
+    public Matchmaking(ClientChannel channel, PlayerInterface player) {
+        super(channel, player);
     }
 
     @Override
     public ClientState handle() {
 
-        System.out.println("Waiting for other players to join...");
+        player.matchmakingStarted();
 
         try {
             channel.handleGameStartRequest();
         } catch (ClosedConnectionException e) {
-            System.out.println("Connection to the server was lost.\n" + e.getMessage());
+            player.showMessage("Connection to the server was lost.\n" + e.getMessage());
             return null;
         } catch (ChannelException e) {
-            System.out.println("Error communicating with the server:\n" + e.getMessage());
+            player.showMessage("Error communicating with the server:\n" + e.getMessage());
             return null;
         }
 
-        System.out.println("Game is starting...");
+        player.matchStarted();
 
-        return new Match(channel);
+        return new Match(channel, player);
     }
 }
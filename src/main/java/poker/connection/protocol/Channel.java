@@ -1,15 +1,18 @@
 package poker.connection.protocol;
 
-import org.json.JSONObject;
+import poker.connection.protocol.codec.Codecs;
+import poker.connection.protocol.codec.MessageCodec;
 import poker.connection.protocol.exceptions.*;
 import poker.connection.protocol.message.Message;
 import poker.connection.protocol.message.State;
 import poker.connection.protocol.message.Status;
+import poker.connection.protocol.transport.SocketTransport;
+import poker.connection.protocol.transport.Transport;
 
 import java.io.*;
 import java.net.Socket;
 import java.util.Map;
-import java.util.concurrent.*;
+import java.util.concurrent.TimeUnit;
 
 import static poker.connection.protocol.message.State.CONNECTION_CHECK;
 import static poker.connection.protocol.message.State.CONNECTION_END;
@@ -17,75 +20,164 @@ import static poker.connection.protocol.message.Status.OK;
 import static poker.connection.protocol.message.Status.REQUEST;
 
 public abstract class Channel {
-    private final Socket socket;
-    private final BufferedReader reader;
-    private final PrintWriter writer;
+    // The other party counts as gone after this long without a frame from it, longer than the server waits between pings
+    public static final long SILENCE_LIMIT_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+    private final Transport transport;
+    private final WriteQueue writeQueue;
+    private final Mailbox mailbox = new Mailbox();
+    private volatile MessageCodec codec = Codecs.JSON;
     private String sessionToken;
+    private volatile long lastSeen = System.nanoTime();
+    private volatile boolean ended = false;
+    private volatile MessageListener listener = null;
 
     public Channel(Socket socket) throws IOException {
-        this.socket = socket;
-        InputStream input = socket.getInputStream();
-        OutputStream output = socket.getOutputStream();
-        reader = new BufferedReader(new InputStreamReader(input));
-        writer = new PrintWriter(output, true);
+        this(new SocketTransport(socket));
+    }
+
+    public Channel(Transport transport) {
+        this.transport = transport;
+        this.writeQueue = new WriteQueue(transport);
         sessionToken = null;
+        transport.start(new Transport.FrameHandler() {
+            @Override
+            public void onFrame(byte[] frame) {
+                receiveFrame(frame);
+            }
+
+            @Override
+            public void onClose(IOException cause) {
+                ended = true;
+                closeInbound(cause.getMessage());
+            }
+        });
     }
 
     public String getAddress() {
-        return socket.getInetAddress().getHostAddress();
+        return transport.getAddress();
     }
 
     public void setSessionToken(String sessionToken) {
         this.sessionToken = sessionToken;
     }
 
+    public MessageCodec getCodec() {
+        return codec;
+    }
+
+    // Only affects outbound frames, inbound frames are decoded by whichever codec produced them
+    protected void setCodec(MessageCodec codec) {
+        this.codec = codec;
+    }
+
+    // Encoded here, in send order, and written later together with whatever else is pending
     protected void sendMessage(Message message) throws ClosedConnectionException {
+        byte[] frame = encode(message);
         try {
-            writer.println(message);
-        } catch (Exception e) {
-            throw new ClosedConnectionException("Connection closed by the other party");
+            writeQueue.send(frame);
+        } catch (IOException e) {
+            throw new ClosedConnectionException("Connection closed by the other party: " + e.getMessage());
         }
     }
 
-    protected void sendMessage(State state, Status status, String body, Map<String, Object> data) throws ClosedConnectionException {
-        sendMessage(new Message(state, status, body, data, sessionToken));
+    // Never waits for room in the write queue, false if there was none
+    private boolean offerMessage(Message message) throws ClosedConnectionException {
+        byte[] frame = encode(message);
+        try {
+            return writeQueue.offer(frame);
+        } catch (IOException e) {
+            throw new ClosedConnectionException("Connection closed by the other party: " + e.getMessage());
+        }
     }
 
-    private Message getMessage() throws ChannelException {
+    private byte[] encode(Message message) throws ClosedConnectionException {
+        try {
+            return codec.encode(message);
+        } catch (IOException | RuntimeException e) {
+            throw new ClosedConnectionException("Could not encode message: " + e.getMessage());
+        }
+    }
 
+    // For the last messages to reach the other party before the process goes away
+    public void flush(int timeout) throws ClosedConnectionException {
         try {
-            String line = reader.readLine();
-            JSONObject json = new JSONObject(line);
-            return new Message(json);
+            writeQueue.flush(TimeUnit.SECONDS.toNanos(timeout));
         } catch (IOException e) {
-            throw new ClosedConnectionException("Connection closed by the other party: " + e.getMessage());
+            throw new ClosedConnectionException("Could not flush pending messages: " + e.getMessage());
         }
     }
 
-    private Message getMessage(int timeout) throws ChannelException {
-        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
-        Future<String> future = executor.submit(reader::readLine);
-        try {
-            String line;
+    public int getPendingFrames() {
+        return writeQueue.size();
+    }
+
+    protected void sendMessage(State state, Status status, String body, Map<String, Object> data) throws ClosedConnectionException {
+        sendMessage(new Message(state, status, body, data, sessionToken));
+    }
 
-            line = future.get(timeout, TimeUnit.SECONDS);
-            JSONObject json = new JSONObject(line);
-            return new Message(json);
+    // While set, messages go to the listener instead of the mailbox, for owners that react to them instead of waiting
+    public void setListener(MessageListener listener) {
+        this.listener = listener;
+    }
 
-        } catch (TimeoutException e) {
-            throw new RequestTimeoutException("Timeout while waiting for message");
-        } catch (ExecutionException | InterruptedException e) {
-            throw new ClosedConnectionException("Connection closed by the other party: " + e.getMessage());
+    private void closeInbound(String reason) {
+        mailbox.close(reason);
+        MessageListener current = listener;
+        if (current != null) {
+            current.onClose(reason);
+        }
+    }
+
+    /*
+        Connection checks are answered as they arrive instead of waiting for someone to read the mailbox. This runs on
+        the transport's reader, the selector thread of every connection with the NIO transport, so nothing here may
+        wait: the answer is dropped if the write queue is full, a party that doesn't read its answers has no use for
+        another one.
+     */
+    private void receiveFrame(byte[] frame) {
+        lastSeen = System.nanoTime();
+        try {
+            Message message = Codecs.decode(frame);
+            if (message.isConnectionCheckRequest()) {
+                acceptConnectionCheck();
+            } else if (message.getState() != CONNECTION_CHECK) {
+                deliver(message);
+            }
+        } catch (ClosedConnectionException ignored) {
+        } catch (IOException e) {
+            // The stream can't be trusted past a frame that doesn't decode
+            closeInbound("Malformed message received: " + e.getMessage());
+            close();
+        }
+    }
+
+    // A listener gets the same checks a read would make, other than the expected state
+    private void deliver(Message message) {
+        MessageListener current = listener;
+        if (current == null) {
+            mailbox.deliver(message);
+        } else if (!message.matchesSessionToken(sessionToken)) {
+            current.onClose("Unexpected session token " + message.getAttribute("sessionToken"));
+        } else if (message.isConnectionEndRequest()) {
+            current.onClose(message.getBody());
+        } else {
+            current.onMessage(message);
         }
     }
 
     protected Message getMessage(State expectedState, boolean isRequestExpected, Integer timeout) throws ChannelException {
+        Long deadline = (timeout != null) ? System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout) : null;
+        return awaitMessage(expectedState, isRequestExpected, deadline);
+    }
+
+    private Message awaitMessage(State expectedState, boolean isRequestExpected, Long deadline) throws ChannelException {
 
         if (isClosed()) {
             throw new ClosedConnectionException("Connection is closed");
         }
 
-        Message message = (timeout != null) ? getMessage(timeout) : getMessage();
+        Message message = mailbox.poll(deadline);
 
         if (!message.matchesSessionToken(sessionToken)) {
             throw new TokenMismatchException(String.format(
@@ -98,10 +190,6 @@ public abstract class Channel {
                     "Connection closed by the other party: %s", message.getBody())
             );
         }
-        if (message.isConnectionCheckRequest()) {
-            acceptConnectionCheck();
-            return getMessage(expectedState, isRequestExpected, timeout);
-        }
         if (expectedState != null && message.getState() != expectedState) {
             throw new UnexpectedMessageException(String.format(
                     "Expected state %s but got %s:\n%s",
@@ -144,31 +232,36 @@ public abstract class Channel {
         sendMessage(CONNECTION_END, REQUEST, body, null);
     }
 
-    private Message requestConnectionCheck() throws ChannelException {
+    // The answer is never read, any frame coming back is enough to know the other party is there
+    public void requestConnectionCheck() throws ClosedConnectionException {
         sendMessage(CONNECTION_CHECK, REQUEST, null, null);
-        return getResponse(CONNECTION_CHECK, 3);
     }
 
     private void acceptConnectionCheck() throws ClosedConnectionException {
-        sendMessage(CONNECTION_CHECK, OK, null, null);
+        offerMessage(new Message(CONNECTION_CHECK, OK, null, null, sessionToken));
+    }
+
+    // Drops the connection without asking the other party to end it, as a lost network would
+    public void close() {
+        try {
+            transport.close();
+        } catch (IOException ignored) {}
     }
 
     public boolean isOpen() {
-        return !socket.isClosed();
+        return !transport.isClosed();
     }
 
     public boolean isClosed() {
-        return socket.isClosed();
+        return transport.isClosed();
+    }
+
+    public long getIdleNanos() {
+        return System.nanoTime() - lastSeen;
     }
 
     public boolean isAlive() {
-        Message response;
-        try {
-            response = requestConnectionCheck();
-        } catch (ChannelException e) {
-            return false;
-        }
-        return response != null && response.isOk();
+        return !ended && !isClosed() && getIdleNanos() < SILENCE_LIMIT_NANOS;
     }
 
     public boolean isBroken() {
@@ -0,0 +1,81 @@
+package poker.connection.protocol;
+
+import poker.connection.protocol.exceptions.ChannelException;
+import poker.connection.protocol.exceptions.ClosedConnectionException;
+import poker.connection.protocol.exceptions.RequestTimeoutException;
+import poker.connection.protocol.message.Message;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class Mailbox {
+    private final Queue<Message> messages = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private String closeReason = null;
+
+    public void deliver(Message message) {
+        lock.lock();
+        try {
+            messages.add(message);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close(String reason) {
+        lock.lock();
+        try {
+            if (closeReason == null) {
+                closeReason = reason;
+            }
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Message take() throws ChannelException {
+        return poll(null);
+    }
+
+    // Waits until the given System.nanoTime() deadline, or forever if it is null.
+    // Messages that arrive after a timeout stay queued for the next caller.
+    public Message poll(Long deadline) throws ChannelException {
+        lock.lock();
+        try {
+            while (messages.isEmpty()) {
+                if (closeReason != null) {
+                    throw new ClosedConnectionException("Connection closed by the other party: " + closeReason);
+                }
+                if (deadline == null) {
+                    notEmpty.await();
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new RequestTimeoutException("Timeout while waiting for message");
+                }
+                notEmpty.awaitNanos(remaining);
+            }
+            return messages.poll();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClosedConnectionException("Interrupted while waiting for message");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return messages.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
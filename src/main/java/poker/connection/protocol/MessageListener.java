@@ -0,0 +1,10 @@
+package poker.connection.protocol;
+
+import poker.connection.protocol.message.Message;
+
+// Called from the thread reading the channel, so it should hand the message over instead of handling it there
+public interface MessageListener {
+    void onMessage(Message message);
+
+    void onClose(String reason);
+}
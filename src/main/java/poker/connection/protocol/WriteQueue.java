@@ -0,0 +1,199 @@
+package poker.connection.protocol;
+
+import poker.connection.protocol.transport.Transport;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    Frames waiting to be written to a transport. Senders only queue them, a virtual thread started when the queue
+    stops being empty writes everything pending as one write, so frames sent back to back (a game state and the prompt
+    that follows it) usually leave in a single flush and TLS record. Senders wait while the queue is full, unless they
+    only offer the frame, and a failed write closes the transport and fails every send after it, instead of being lost.
+ */
+public class WriteQueue {
+    private static final int CAPACITY = 256;
+    // A TLS record holds up to 16KB, a bigger batch would be split anyway
+    private static final int MAX_BATCH_BYTES = 16 * 1024;
+    private static final long SEND_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final Transport transport;
+    private final ArrayDeque<byte[]> frames = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private boolean writing = false;
+    private IOException failure = null;
+    private long writes = 0;
+    private long framesWritten = 0;
+
+    public WriteQueue(Transport transport) {
+        this.transport = transport;
+    }
+
+    public void send(byte[] frame) throws IOException {
+        long deadline = System.nanoTime() + SEND_TIMEOUT_NANOS;
+        lock.lock();
+        try {
+            while (failure == null && frames.size() >= CAPACITY) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    fail(new IOException("Timed out waiting for the other party to read"));
+                    break;
+                }
+                notFull.awaitNanos(remaining);
+            }
+            if (failure != null) {
+                throw new IOException(failure.getMessage(), failure);
+            }
+            frames.add(frame);
+            startWriter();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to send", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Never waits, false if the queue is full, for senders that can't block such as the transport's reader
+    public boolean offer(byte[] frame) throws IOException {
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw new IOException(failure.getMessage(), failure);
+            }
+            if (frames.size() >= CAPACITY) {
+                return false;
+            }
+            frames.add(frame);
+            startWriter();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held
+    private void startWriter() {
+        if (!writing) {
+            writing = true;
+            Thread.ofVirtual().name("writer-" + transport.getAddress()).start(this::drain);
+        }
+    }
+
+    // Waits until everything queued so far has been written
+    public void flush(long timeoutNanos) throws IOException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        lock.lock();
+        try {
+            while (failure == null && writing) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IOException("Timed out flushing pending frames");
+                }
+                flushed.awaitNanos(remaining);
+            }
+            if (failure != null) {
+                throw new IOException(failure.getMessage(), failure);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while flushing", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            byte[] batch;
+            lock.lock();
+            try {
+                if (frames.isEmpty() || failure != null) {
+                    writing = false;
+                    flushed.signalAll();
+                    return;
+                }
+                batch = takeBatch();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                transport.write(batch);
+            } catch (IOException e) {
+                lock.lock();
+                try {
+                    fail(e);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    // Always at least one frame, then as many as fit in one record
+    private byte[] takeBatch() {
+        byte[] first = frames.poll();
+        int size = first.length;
+        int count = 1;
+        for (byte[] frame : frames) {
+            if (size + frame.length > MAX_BATCH_BYTES) {
+                break;
+            }
+            size += frame.length;
+            count++;
+        }
+        writes++;
+        framesWritten += count;
+        if (count == 1) {
+            return first;
+        }
+        byte[] batch = new byte[size];
+        System.arraycopy(first, 0, batch, 0, first.length);
+        int offset = first.length;
+        for (int i = 1; i < count; i++) {
+            byte[] frame = frames.poll();
+            System.arraycopy(frame, 0, batch, offset, frame.length);
+            offset += frame.length;
+        }
+        return batch;
+    }
+
+    // Called with the lock held, the frames left can't be written anymore and the reader learns it from the transport
+    private void fail(IOException cause) {
+        if (failure == null) {
+            failure = cause;
+        }
+        frames.clear();
+        notFull.signalAll();
+        flushed.signalAll();
+        try {
+            transport.close();
+        } catch (IOException ignored) {}
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return frames.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Frames per write, how much the queue coalesced so far
+    public double getFramesPerWrite() {
+        lock.lock();
+        try {
+            return writes == 0 ? 0 : (double) framesWritten / writes;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package poker.connection.protocol.channels;
 
 import poker.connection.protocol.Channel;
+import poker.connection.protocol.codec.Codecs;
 import poker.connection.protocol.exceptions.ChannelException;
 import poker.connection.protocol.exceptions.ClosedConnectionException;
 import poker.connection.protocol.message.Message;
+import poker.connection.protocol.transport.Transport;
 
 import java.io.IOException;
 import java.net.Socket;
@@ -14,23 +16,40 @@ import static poker.connection.protocol.message.Status.OK;
 import static poker.connection.protocol.message.Status.REQUEST;
 
 public class ClientChannel extends Channel {
+    public static final String DELTA_UPDATES = "delta";
+
     public ClientChannel(Socket socket) throws IOException {
         super(socket);
     }
 
+    public ClientChannel(Transport transport) {
+        super(transport);
+    }
+
     public Message authenticate(String username, String password) throws ChannelException {
         sendMessage(AUTHENTICATION, REQUEST, null, Map.of(
                 "username", username,
-                "password", password)
+                "password", password,
+                "codecs", Codecs.supportedNames(),
+                "updates", DELTA_UPDATES)
         );
-        return getResponse(AUTHENTICATION);
+        return acceptCodec(getResponse(AUTHENTICATION));
     }
 
     public Message recoverSession(String sessionToken) throws ChannelException {
         sendMessage(CONNECTION_RECOVERY, REQUEST, null, Map.of(
-                "sessionToken", sessionToken)
+                "sessionToken", sessionToken,
+                "codecs", Codecs.supportedNames(),
+                "updates", DELTA_UPDATES)
         );
-        return getResponse(CONNECTION_RECOVERY);
+        return acceptCodec(getResponse(CONNECTION_RECOVERY));
+    }
+
+    private Message acceptCodec(Message response) {
+        if (response.isOk() && response.hasAttribute("codec")) {
+            setCodec(Codecs.forName(response.getAttribute("codec")));
+        }
+        return response;
     }
 
     public void handleGameStartRequest() throws ChannelException {
@@ -1,30 +1,53 @@
 package poker.connection.protocol.channels;
 
-import com.google.gson.Gson;
 import poker.connection.protocol.Channel;
+import poker.connection.protocol.codec.Codecs;
+import poker.connection.protocol.codec.MessageCodec;
 import poker.connection.protocol.exceptions.ChannelException;
 import poker.connection.protocol.exceptions.ClosedConnectionException;
+import poker.connection.protocol.message.JsonPayload;
 import poker.connection.protocol.message.Message;
 import poker.connection.protocol.message.State;
+import poker.connection.protocol.transport.Transport;
+import poker.game.common.GameSerializer;
 import poker.game.common.GameState;
+import poker.game.common.GameStateDelta;
 
 import java.io.IOException;
 import java.net.Socket;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
+import static poker.connection.protocol.channels.ClientChannel.DELTA_UPDATES;
 import static poker.connection.protocol.message.State.*;
 import static poker.connection.protocol.message.Status.*;
 
 public class ServerChannel extends Channel {
+    private MessageCodec negotiatedCodec = Codecs.JSON;
+    private boolean deltaUpdates = false;
+    private final ReentrantLock gameStateLock = new ReentrantLock();
+    private GameState lastGameState = null;
+    private int gameStateVersion = 0;
 
     public ServerChannel(Socket socket) throws IOException {
         super(socket);
     }
 
+    public ServerChannel(Transport transport) {
+        super(transport);
+    }
+
+    public void negotiateCapabilities(Message request) {
+        negotiatedCodec = Codecs.negotiate(request.getAttribute("codecs"));
+        deltaUpdates = DELTA_UPDATES.equals(request.getAttribute("updates"));
+    }
+
     public void acceptConnectionRecovery(String body, String sessionToken) throws ClosedConnectionException {
         sendMessage(CONNECTION_RECOVERY, OK, body, Map.of(
-                "sessionToken", sessionToken
+                "sessionToken", sessionToken,
+                "codec", negotiatedCodec.getName()
         ));
+        setCodec(negotiatedCodec);
     }
 
     public void rejectConnectionRecovery(String body) throws ClosedConnectionException {
@@ -32,15 +55,26 @@ public class ServerChannel extends Channel {
     }
 
     public void acceptAuthentication(String body, String sessionToken) throws ClosedConnectionException {
-        sendMessage(AUTHENTICATION, OK, body, Map.of("sessionToken", sessionToken));
+        sendMessage(AUTHENTICATION, OK, body, Map.of(
+                "sessionToken", sessionToken,
+                "codec", negotiatedCodec.getName()
+        ));
+        setCodec(negotiatedCodec);
     }
 
     public void rejectAuthentication(String body) throws ClosedConnectionException {
         sendMessage(AUTHENTICATION, ERROR, body, null);
     }
 
+    // Not a failed attempt, the client should send the same credentials again after retryAfter seconds
+    public void deferAuthentication(String body, int retryAfter) throws ClosedConnectionException {
+        sendMessage(AUTHENTICATION, ERROR, body, Map.of(
+                "retryAfter", retryAfter
+        ));
+    }
+
     public void sendGameState(GameState gameState) throws ClosedConnectionException {
-        sendMessage(MATCH_DISPLAY, REQUEST, null, Map.of("gameState", new Gson().toJson(gameState)));
+        sendGameStateUpdate(MATCH_DISPLAY, null, gameState);
     }
 
     public Message sendRequeueRequest(int timeout) throws ChannelException {
@@ -49,15 +83,50 @@ public class ServerChannel extends Channel {
     }
 
     public Message getPlayerMove(String body, GameState gameState, Integer timeout) throws ChannelException {
-        sendMessage(MATCH_PLAY, REQUEST, body, Map.of("gameState", new Gson().toJson(gameState)));
+        requestPlayerMove(body, gameState);
         return getResponse(MATCH_PLAY, timeout);
     }
 
+    // The move comes back to the listener of the channel
+    public void requestPlayerMove(String body, GameState gameState) throws ClosedConnectionException {
+        sendGameStateUpdate(MATCH_PLAY, body, gameState);
+    }
+
+    // Clients that support it get a full snapshot first and then only the changes to the last state they were sent
+    private void sendGameStateUpdate(State state, String body, GameState gameState) throws ClosedConnectionException {
+        gameStateLock.lock();
+        try {
+            int version = ++gameStateVersion;
+            GameStateDelta delta = deltaUpdates ? GameStateDelta.diff(lastGameState, gameState, version) : null;
+            lastGameState = deltaUpdates ? gameState.copy() : null;
+            if (delta != null) {
+                sendMessage(state, REQUEST, body, Map.of("gameDelta", (JsonPayload) writer -> GameSerializer.write(delta, writer)));
+            } else {
+                sendMessage(state, REQUEST, body, Map.of(
+                        "gameState", (JsonPayload) writer -> GameSerializer.write(gameState, writer),
+                        "gameStateVersion", version
+                ));
+            }
+        } finally {
+            gameStateLock.unlock();
+        }
+    }
+
+    private void resetGameState() {
+        gameStateLock.lock();
+        try {
+            lastGameState = null;
+        } finally {
+            gameStateLock.unlock();
+        }
+    }
+
     public Message getRequest(State expectedState) throws ChannelException {
         return getRequest(expectedState, null);
     }
 
     public boolean requestMatchReconnect() throws ChannelException {
+        resetGameState();
         sendMessage(MATCH_RECONNECT, REQUEST, null, null);
         return getResponse(MATCH_RECONNECT).isOk();
     }
@@ -68,6 +137,7 @@ public class ServerChannel extends Channel {
     }
 
     public void notifyGameStart() throws ClosedConnectionException {
+        resetGameState();
         sendMessage(MATCH_START, REQUEST, null, null);
     }
 }
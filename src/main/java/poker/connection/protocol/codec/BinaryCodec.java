@@ -0,0 +1,188 @@
+package poker.connection.protocol.codec;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import poker.connection.protocol.message.JsonPayload;
+import poker.connection.protocol.message.Message;
+import poker.connection.protocol.message.State;
+import poker.connection.protocol.message.Status;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    Frame layout: MAGIC | payload length (int) | state code (byte) | status code (byte) | body | session token |
+    attribute count (short) | attributes, where each attribute is a key followed by a type tag and its value.
+    Strings are written as their UTF-8 length (int, -1 for null) followed by the bytes.
+ */
+public class BinaryCodec implements MessageCodec {
+    public static final String NAME = "binary";
+    public static final byte MAGIC = (byte) 0xB1;
+    public static final int HEADER_LENGTH = 5;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_INT = 2;
+    private static final byte TAG_LONG = 3;
+    private static final byte TAG_BOOLEAN = 4;
+    private static final byte TAG_DOUBLE = 5;
+    private static final byte TAG_JSON_OBJECT = 6;
+    private static final byte TAG_JSON_ARRAY = 7;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    private static class FrameOutputStream extends ByteArrayOutputStream {
+        FrameOutputStream(int size) {
+            super(size);
+        }
+
+        void patchInt(int position, int value) {
+            buf[position] = (byte) (value >>> 24);
+            buf[position + 1] = (byte) (value >>> 16);
+            buf[position + 2] = (byte) (value >>> 8);
+            buf[position + 3] = (byte) value;
+        }
+    }
+
+    @Override
+    public byte[] encode(Message message) throws IOException {
+        FrameOutputStream bytes = new FrameOutputStream(1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(MAGIC);
+        out.writeInt(0);
+
+        JSONObject attributes = message.getAttributes();
+        out.writeByte(message.getState().getCode());
+        out.writeByte(message.getStatus().getCode());
+        writeString(out, message.getBody());
+        writeString(out, attributes.optString("sessionToken", null));
+
+        int count = attributes.has("sessionToken") ? attributes.length() - 1 : attributes.length();
+        out.writeShort(count);
+        for (String key : attributes.keySet()) {
+            if (!key.equals("sessionToken")) {
+                writeString(out, key);
+                writeValue(bytes, out, attributes.get(key));
+            }
+        }
+
+        bytes.patchInt(1, bytes.size() - HEADER_LENGTH);
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public Message decode(byte[] frame) throws IOException {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(frame, HEADER_LENGTH, frame.length - HEADER_LENGTH);
+            State state = State.fromCode(in.get());
+            Status status = Status.fromCode(in.get());
+            String body = readString(in);
+            String sessionToken = readString(in);
+
+            JSONObject attributes = new JSONObject();
+            int count = in.getShort();
+            for (int i = 0; i < count; i++) {
+                String key = readString(in);
+                attributes.put(key, readValue(in));
+            }
+            if (sessionToken != null) {
+                attributes.put("sessionToken", sessionToken);
+            }
+            return new Message(state, status, body, attributes);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | JSONException e) {
+            throw new IOException("Malformed binary frame");
+        }
+    }
+
+    private static void writeValue(FrameOutputStream bytes, DataOutputStream out, Object value) throws IOException {
+        switch (value) {
+            case JsonPayload payload -> {
+                out.writeByte(TAG_STRING);
+                int lengthPosition = bytes.size();
+                out.writeInt(0);
+                Writer writer = new OutputStreamWriter(bytes, UTF_8);
+                payload.writeTo(writer);
+                writer.flush();
+                bytes.patchInt(lengthPosition, bytes.size() - lengthPosition - 4);
+            }
+            case String string -> {
+                out.writeByte(TAG_STRING);
+                writeString(out, string);
+            }
+            case Integer integer -> {
+                out.writeByte(TAG_INT);
+                out.writeInt(integer);
+            }
+            case Long number -> {
+                out.writeByte(TAG_LONG);
+                out.writeLong(number);
+            }
+            case Boolean bool -> {
+                out.writeByte(TAG_BOOLEAN);
+                out.writeBoolean(bool);
+            }
+            case Number number -> {
+                out.writeByte(TAG_DOUBLE);
+                out.writeDouble(number.doubleValue());
+            }
+            case JSONObject object -> {
+                out.writeByte(TAG_JSON_OBJECT);
+                writeString(out, object.toString());
+            }
+            case JSONArray array -> {
+                out.writeByte(TAG_JSON_ARRAY);
+                writeString(out, array.toString());
+            }
+            default -> {
+                if (value == JSONObject.NULL) {
+                    out.writeByte(TAG_NULL);
+                } else {
+                    out.writeByte(TAG_STRING);
+                    writeString(out, value.toString());
+                }
+            }
+        }
+    }
+
+    private static Object readValue(ByteBuffer in) throws IOException {
+        byte tag = in.get();
+        return switch (tag) {
+            case TAG_NULL -> JSONObject.NULL;
+            case TAG_STRING -> readString(in);
+            case TAG_INT -> in.getInt();
+            case TAG_LONG -> in.getLong();
+            case TAG_BOOLEAN -> in.get() != 0;
+            case TAG_DOUBLE -> in.getDouble();
+            case TAG_JSON_OBJECT -> new JSONObject(readString(in));
+            case TAG_JSON_ARRAY -> new JSONArray(readString(in));
+            default -> throw new IOException("Unknown attribute type " + tag);
+        };
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.position(), length, UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+}
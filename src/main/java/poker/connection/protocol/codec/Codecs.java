@@ -0,0 +1,48 @@
+package poker.connection.protocol.codec;
+
+import poker.connection.protocol.message.Message;
+
+import java.io.IOException;
+import java.util.List;
+
+public final class Codecs {
+    public static final MessageCodec JSON = new JsonCodec();
+    public static final MessageCodec BINARY = new BinaryCodec();
+
+    // In order of preference
+    private static final List<MessageCodec> SUPPORTED = List.of(BINARY, JSON);
+
+    private Codecs() {
+        throw new AssertionError("This class should not be instantiated.");
+    }
+
+    public static Message decode(byte[] frame) throws IOException {
+        return frame[0] == BinaryCodec.MAGIC ? BINARY.decode(frame) : JSON.decode(frame);
+    }
+
+    public static String supportedNames() {
+        return String.join(",", SUPPORTED.stream().map(MessageCodec::getName).toList());
+    }
+
+    public static MessageCodec forName(String name) {
+        for (MessageCodec codec : SUPPORTED) {
+            if (codec.getName().equals(name)) {
+                return codec;
+            }
+        }
+        return JSON;
+    }
+
+    public static MessageCodec negotiate(String offeredNames) {
+        if (offeredNames == null) {
+            return JSON;
+        }
+        List<String> offered = List.of(offeredNames.split(","));
+        for (MessageCodec codec : SUPPORTED) {
+            if (offered.contains(codec.getName())) {
+                return codec;
+            }
+        }
+        return JSON;
+    }
+}
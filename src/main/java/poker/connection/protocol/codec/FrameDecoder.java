@@ -0,0 +1,77 @@
+package poker.connection.protocol.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/*
+    Splits an inbound byte stream into frames. Frames starting with BinaryCodec.MAGIC are length-prefixed,
+    anything else is a newline-terminated JSON line, so both codecs can share one connection.
+ */
+public class FrameDecoder {
+    public static final int MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+
+    private final ByteArrayOutputStream frame = new ByteArrayOutputStream(512);
+    private boolean binary = false;
+    private int remaining = 0;
+
+    public void feed(ByteBuffer bytes, Consumer<byte[]> sink) throws IOException {
+        while (bytes.hasRemaining()) {
+            if (frame.size() == 0) {
+                binary = bytes.get(bytes.position()) == BinaryCodec.MAGIC;
+                remaining = binary ? BinaryCodec.HEADER_LENGTH : 0;
+            }
+            if (binary) {
+                feedBinary(bytes, sink);
+            } else {
+                feedLine(bytes, sink);
+            }
+        }
+    }
+
+    private void feedBinary(ByteBuffer bytes, Consumer<byte[]> sink) throws IOException {
+        int chunk = Math.min(remaining, bytes.remaining());
+        frame.write(bytes.array(), bytes.arrayOffset() + bytes.position(), chunk);
+        bytes.position(bytes.position() + chunk);
+        remaining -= chunk;
+        if (remaining > 0) {
+            return;
+        }
+        if (frame.size() == BinaryCodec.HEADER_LENGTH) {
+            int length = ByteBuffer.wrap(frame.toByteArray()).getInt(1);
+            if (length < 0 || length > MAX_FRAME_LENGTH) {
+                throw new IOException("Invalid frame length " + length);
+            }
+            remaining = length;
+            if (remaining > 0) {
+                return;
+            }
+        }
+        emit(sink);
+    }
+
+    private void feedLine(ByteBuffer bytes, Consumer<byte[]> sink) throws IOException {
+        while (bytes.hasRemaining()) {
+            byte b = bytes.get();
+            if (b == '\n') {
+                emit(sink);
+                return;
+            }
+            if (b != '\r') {
+                frame.write(b);
+            }
+        }
+        if (frame.size() > MAX_FRAME_LENGTH) {
+            throw new IOException("Frame exceeds " + MAX_FRAME_LENGTH + " bytes");
+        }
+    }
+
+    private void emit(Consumer<byte[]> sink) {
+        byte[] complete = frame.toByteArray();
+        frame.reset();
+        if (complete.length > 0) {
+            sink.accept(complete);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package poker.connection.protocol.codec;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import poker.connection.protocol.message.Message;
+
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonCodec implements MessageCodec {
+    public static final String NAME = "json";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Message message) {
+        return (message.toString() + "\n").getBytes(UTF_8);
+    }
+
+    @Override
+    public Message decode(byte[] frame) throws IOException {
+        try {
+            return new Message(new JSONObject(new String(frame, UTF_8)));
+        } catch (JSONException | IllegalArgumentException e) {
+            throw new IOException("Malformed JSON frame: " + e.getMessage());
+        }
+    }
+}
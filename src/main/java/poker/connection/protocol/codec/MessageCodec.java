@@ -0,0 +1,14 @@
+package poker.connection.protocol.codec;
+
+import poker.connection.protocol.message.Message;
+
+import java.io.IOException;
+
+public interface MessageCodec {
+
+    String getName();
+
+    byte[] encode(Message message) throws IOException;
+
+    Message decode(byte[] frame) throws IOException;
+}
@@ -0,0 +1,30 @@
+package poker.connection.protocol.message;
+
+import org.json.JSONObject;
+import org.json.JSONString;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/*
+    An attribute whose value is a JSON document written on demand. Codecs that can stream (binary) write it
+    straight into the frame; the JSON codec embeds it as a string attribute, as it always has been sent.
+ */
+@FunctionalInterface
+public interface JsonPayload extends JSONString {
+
+    void writeTo(Writer writer) throws IOException;
+
+    @Override
+    default String toJSONString() {
+        StringWriter writer = new StringWriter(1024);
+        try {
+            writeTo(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return JSONObject.quote(writer.toString());
+    }
+}
@@ -23,6 +23,13 @@ public class Message {
         }
     }
 
+    public Message(State state, Status status, String body, JSONObject attributes) {
+        this.state = state;
+        this.status = status;
+        this.body = body;
+        this.attributes = attributes;
+    }
+
     public Message(JSONObject json) {
         this.state = State.valueOf(json.getString("state"));
         this.status = Status.valueOf(json.getString("status"));
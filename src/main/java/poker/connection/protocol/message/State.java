@@ -1,22 +1,38 @@
 package poker.connection.protocol.message;
 
 public enum State {
-    CONNECTION_RECOVERY("CONNECTION_RECOVERY"),
-    CONNECTION_CHECK("CONNECTION_CHECK"),
-    CONNECTION_END("CONNECTION_END"),
-    AUTHENTICATION("AUTHENTICATION"),
-    MATCHMAKING("MATCHMAKING"),
-    MATCH_RECONNECT("MATCH_RECONNECT"),
-    MATCH_START("MATCH_START"),
-    MATCH_DISPLAY("MATCH_DISPLAY"),
-    MATCH_PLAY("MATCH_PLAY"),
-    TURN_TIMEOUT("TURN_TIMEOUT"),
-    REQUEUE("REQUEUE");
+    CONNECTION_RECOVERY("CONNECTION_RECOVERY", 0),
+    CONNECTION_CHECK("CONNECTION_CHECK", 1),
+    CONNECTION_END("CONNECTION_END", 2),
+    AUTHENTICATION("AUTHENTICATION", 3),
+    MATCHMAKING("MATCHMAKING", 4),
+    MATCH_RECONNECT("MATCH_RECONNECT", 5),
+    MATCH_START("MATCH_START", 6),
+    MATCH_DISPLAY("MATCH_DISPLAY", 7),
+    MATCH_PLAY("MATCH_PLAY", 8),
+    TURN_TIMEOUT("TURN_TIMEOUT", 9),
+    REQUEUE("REQUEUE", 10);
 
     final String value;
+    // Sent by the binary codec, a constant keeps its code even if the enum is reordered
+    final byte code;
 
-    State(String value) {
+    State(String value, int code) {
         this.value = value;
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public static State fromCode(byte code) {
+        for (State state : values()) {
+            if (state.code == code) {
+                return state;
+            }
+        }
+        throw new IllegalArgumentException("Unknown state code " + code);
     }
 
     public Boolean equals(State state) {
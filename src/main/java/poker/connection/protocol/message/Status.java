@@ -1,14 +1,30 @@
 package poker.connection.protocol.message;
 
 public enum Status {
-    REQUEST("REQUEST"),
-    OK("OK"),
-    ERROR("ERROR");
+    REQUEST("REQUEST", 0),
+    OK("OK", 1),
+    ERROR("ERROR", 2);
 
     final String value;
+    // Sent by the binary codec, a constant keeps its code even if the enum is reordered
+    final byte code;
 
-    Status(String value) {
+    Status(String value, int code) {
         this.value = value;
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public static Status fromCode(byte code) {
+        for (Status status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown status code " + code);
     }
 
     public Boolean equals(Status status) {
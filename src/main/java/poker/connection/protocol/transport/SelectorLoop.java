@@ -0,0 +1,169 @@
+package poker.connection.protocol.transport;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/*
+    One thread selecting over every listener and connection. Anything that can take long is kept off it: the delegated
+    tasks of TLS handshakes run on virtual threads and the connection carries on once they are done, and timers run on
+    their own thread and only hand the work that follows back to the loop.
+ */
+public class SelectorLoop extends Thread {
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledThreadPoolExecutor timer;
+
+    private record Acceptor(ServerSocketChannel serverChannel, SSLContext sslContext, long handshakeTimeoutMillis,
+                            Consumer<Transport> onAccept) {}
+
+    public SelectorLoop() throws IOException {
+        super("selector-loop");
+        this.selector = Selector.open();
+        this.timer = new ScheduledThreadPoolExecutor(1, Thread.ofPlatform().name("selector-timer").daemon().factory());
+        // Most timers are handshake deadlines cancelled long before they expire
+        timer.setRemoveOnCancelPolicy(true);
+        setDaemon(true);
+    }
+
+    public void listen(int port, int backlog, SSLContext sslContext, long handshakeTimeoutMillis, Consumer<Transport> onAccept) throws IOException {
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), backlog);
+        serverChannel.configureBlocking(false);
+        Acceptor acceptor = new Acceptor(serverChannel, sslContext, handshakeTimeoutMillis, onAccept);
+        execute(() -> {
+            try {
+                serverChannel.register(selector, SelectionKey.OP_ACCEPT, acceptor);
+            } catch (ClosedChannelException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    public void closeListeners() {
+        execute(() -> {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Acceptor acceptor) {
+                    key.cancel();
+                    try {
+                        acceptor.serverChannel().close();
+                    } catch (IOException ignored) {}
+                }
+            }
+        });
+    }
+
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    void wakeup() {
+        selector.wakeup();
+    }
+
+    // Runs the task on the loop once the delay is over
+    ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+        return timer.schedule(() -> execute(task), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Runs the work off the loop, then what follows it back on the loop
+    void offload(Runnable work, Runnable then) {
+        workers.execute(() -> {
+            try {
+                work.run();
+            } finally {
+                execute(then);
+            }
+        });
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!isInterrupted()) {
+                selector.select();
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.attachment() instanceof Acceptor acceptor) {
+                        accept(acceptor);
+                        continue;
+                    }
+                    SelectorTransport transport = (SelectorTransport) key.attachment();
+                    if (key.isReadable()) {
+                        transport.onReadable();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        transport.onWritable();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void accept(Acceptor acceptor) {
+        SocketChannel socketChannel;
+        while (true) {
+            try {
+                if ((socketChannel = acceptor.serverChannel().accept()) == null) {
+                    return;
+                }
+            } catch (IOException e) {
+                return;
+            }
+            try {
+                SSLEngine engine = acceptor.sslContext().createSSLEngine();
+                engine.setUseClientMode(false);
+                SelectorTransport transport = new SelectorTransport(this, socketChannel, engine, acceptor.handshakeTimeoutMillis());
+                transport.register(selector);
+                acceptor.onAccept().accept(transport);
+            } catch (IOException e) {
+                try {
+                    socketChannel.close();
+                } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    private void closeAll() {
+        timer.shutdownNow();
+        workers.shutdownNow();
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof SelectorTransport transport) {
+                transport.close();
+            } else {
+                try {
+                    key.channel().close();
+                } catch (IOException ignored) {}
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException ignored) {}
+    }
+}
@@ -0,0 +1,428 @@
+package poker.connection.protocol.transport;
+
+import poker.connection.protocol.codec.FrameDecoder;
+import poker.connection.utils.TlsContexts;
+import poker.connection.utils.TlsContexts.HandshakeCounter;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static javax.net.ssl.SSLEngineResult.HandshakeStatus.FINISHED;
+import static javax.net.ssl.SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING;
+
+/*
+    A TLS connection driven by the SelectorLoop: reads, handshakes and flushes happen on the selector thread, writes
+    are encrypted on the writer's thread and flushed as far as the socket takes them, the rest is left for the selector
+    to flush when the socket is writable. A writer waits while more than MAX_OUTBOUND_BYTES are still waiting for the
+    socket, and fails after WRITE_TIMEOUT, so a peer that doesn't read can't make the server buffer without limit. The
+    delegated tasks of the handshake run off the loop, the connection isn't read while they run, and a handshake that
+    isn't done within the timeout given by the loop closes the connection. Frames read are handed to the handler after
+    the lock is released, on the selector thread, so the handler must not block.
+ */
+public class SelectorTransport implements Transport {
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+    private static final int MAX_OUTBOUND_BYTES = 64 * 1024;
+    private static final long WRITE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final SelectorLoop loop;
+    private final SocketChannel socketChannel;
+    private final SSLEngine engine;
+    private final String address;
+    private final long handshakeTimeoutMillis;
+    private final long openedAt = System.currentTimeMillis();
+    private final Queue<byte[]> undelivered = new ArrayDeque<>();
+    private final Queue<ByteBuffer> outbound = new ArrayDeque<>();
+    private final Queue<ByteBuffer> pendingFrames = new ArrayDeque<>();
+    private final FrameDecoder decoder = new FrameDecoder();
+    // Never held by the selector thread while waiting, only writers wait on it
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition writable = lock.newCondition();
+    private int outboundBytes = 0;
+    private ByteBuffer netIn;
+    private ByteBuffer appIn;
+    private SelectionKey key;
+    private FrameHandler handler;
+    private boolean handshakeFinished = false;
+    private boolean runningTasks = false;
+    private boolean delivering = false;
+    private boolean closeDelivered = false;
+    private ScheduledFuture<?> handshakeDeadline;
+    private volatile boolean closed = false;
+
+    SelectorTransport(SelectorLoop loop, SocketChannel socketChannel, SSLEngine engine, long handshakeTimeoutMillis) throws IOException {
+        this.loop = loop;
+        this.socketChannel = socketChannel;
+        this.engine = engine;
+        this.handshakeTimeoutMillis = handshakeTimeoutMillis;
+        this.address = ((InetSocketAddress) socketChannel.getRemoteAddress()).getAddress().getHostAddress();
+        this.netIn = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+        this.appIn = ByteBuffer.allocate(engine.getSession().getApplicationBufferSize());
+        socketChannel.configureBlocking(false);
+        engine.beginHandshake();
+    }
+
+    void register(Selector selector) throws IOException {
+        lock.lock();
+        try {
+            key = socketChannel.register(selector, SelectionKey.OP_READ, this);
+            handshakeDeadline = loop.schedule(this::expireHandshake, handshakeTimeoutMillis);
+            process();
+            flush();
+        } finally {
+            lock.unlock();
+        }
+        deliverPending();
+    }
+
+    void onReadable() {
+        lock.lock();
+        try {
+            int read = socketChannel.read(netIn);
+            if (read < 0) {
+                closeInbound();
+                shutdown();
+            } else {
+                process();
+                flush();
+            }
+        } catch (IOException e) {
+            shutdown();
+        } finally {
+            lock.unlock();
+        }
+        deliverPending();
+    }
+
+    void onWritable() {
+        lock.lock();
+        try {
+            flush();
+        } catch (IOException e) {
+            shutdown();
+        } finally {
+            lock.unlock();
+        }
+        deliverPending();
+    }
+
+    @Override
+    public void start(FrameHandler handler) {
+        lock.lock();
+        try {
+            this.handler = handler;
+        } finally {
+            lock.unlock();
+        }
+        deliverPending();
+    }
+
+    @Override
+    public void write(byte[] frame) throws IOException {
+        long deadline = System.nanoTime() + WRITE_TIMEOUT_NANOS;
+        lock.lock();
+        try {
+            // The engine can't be used while its delegated tasks run
+            while (!closed && (runningTasks || outboundBytes >= MAX_OUTBOUND_BYTES)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IOException("Timed out waiting for the other party to read");
+                }
+                writable.awaitNanos(remaining);
+            }
+            if (closed) {
+                throw new EOFException("Connection is closed");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(frame);
+            if (!handshakeFinished) {
+                pendingFrames.add(buffer);
+                outboundBytes += frame.length;
+                return;
+            }
+            wrap(buffer);
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to write", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            shutdown();
+        } finally {
+            lock.unlock();
+        }
+        deliverPending();
+    }
+
+    // Called with the lock held, the handler learns about it from deliverPending once the lock is released
+    private void shutdown() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        writable.signalAll();
+        // The close_notify is skipped while delegated tasks still use the engine
+        if (!runningTasks) {
+            engine.closeOutbound();
+            try {
+                wrap(EMPTY);
+                flush();
+            } catch (IOException ignored) {}
+        }
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            socketChannel.close();
+        } catch (IOException ignored) {}
+    }
+
+    /*
+        Hands the frames read so far, then the close, to the handler without holding the lock: a handler that writes
+        back must not keep the writers it may wait for out of the transport. One thread delivers at a time so the
+        frames keep their order, a thread finding another one delivering leaves its frames to it.
+     */
+    private void deliverPending() {
+        FrameHandler current;
+        lock.lock();
+        try {
+            if (delivering || handler == null) {
+                return;
+            }
+            delivering = true;
+            current = handler;
+        } finally {
+            lock.unlock();
+        }
+        while (true) {
+            byte[] frame;
+            lock.lock();
+            try {
+                frame = undelivered.poll();
+                if (frame == null) {
+                    delivering = false;
+                    if (!closed || closeDelivered) {
+                        return;
+                    }
+                    closeDelivered = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (frame == null) {
+                current.onClose(new EOFException("End of stream reached"));
+                return;
+            }
+            current.onFrame(frame);
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public String getAddress() {
+        return address;
+    }
+
+    private void process() throws IOException {
+        boolean progress = true;
+        while (progress && !closed && !runningTasks) {
+            switch (engine.getHandshakeStatus()) {
+                case NEED_TASK -> {
+                    runDelegatedTasks();
+                    progress = false;
+                }
+                case NEED_WRAP -> {
+                    wrap(EMPTY);
+                    progress = true;
+                }
+                default -> progress = unwrap();
+            }
+            if (!handshakeFinished && engine.getHandshakeStatus() == NOT_HANDSHAKING) {
+                finishHandshake();
+            }
+        }
+    }
+
+    // Mostly the key exchange, far too slow for the selector thread
+    private void runDelegatedTasks() {
+        runningTasks = true;
+        loop.offload(() -> {
+            Runnable task;
+            while ((task = engine.getDelegatedTask()) != null) {
+                task.run();
+            }
+        }, this::onTasksDone);
+    }
+
+    private void onTasksDone() {
+        lock.lock();
+        try {
+            runningTasks = false;
+            writable.signalAll();
+            process();
+            flush();
+        } catch (IOException e) {
+            shutdown();
+        } finally {
+            lock.unlock();
+        }
+        deliverPending();
+    }
+
+    private void expireHandshake() {
+        lock.lock();
+        try {
+            if (!handshakeFinished) {
+                shutdown();
+            }
+        } finally {
+            lock.unlock();
+        }
+        deliverPending();
+    }
+
+    private boolean unwrap() throws IOException {
+        netIn.flip();
+        try {
+            if (!netIn.hasRemaining()) {
+                return false;
+            }
+            SSLEngineResult result = engine.unwrap(netIn, appIn);
+            checkHandshake(result);
+            switch (result.getStatus()) {
+                case BUFFER_OVERFLOW -> {
+                    appIn = enlarge(appIn, engine.getSession().getApplicationBufferSize());
+                    return true;
+                }
+                case BUFFER_UNDERFLOW -> {
+                    if (netIn.remaining() == netIn.capacity()) {
+                        ByteBuffer enlarged = ByteBuffer.allocate(netIn.capacity() * 2);
+                        enlarged.put(netIn).flip();
+                        netIn = enlarged;
+                    }
+                    return false;
+                }
+                case CLOSED -> {
+                    shutdown();
+                    return false;
+                }
+                default -> {
+                    collectFrames();
+                    return result.bytesConsumed() > 0 || result.bytesProduced() > 0;
+                }
+            }
+        } finally {
+            netIn.compact();
+        }
+    }
+
+    private void wrap(ByteBuffer source) throws IOException {
+        do {
+            ByteBuffer netOut = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+            SSLEngineResult result = engine.wrap(source, netOut);
+            checkHandshake(result);
+            netOut.flip();
+            if (netOut.hasRemaining()) {
+                outbound.add(netOut);
+                outboundBytes += netOut.remaining();
+            }
+            if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+                return;
+            }
+        } while (source.hasRemaining());
+    }
+
+    private void flush() throws IOException {
+        while (!outbound.isEmpty()) {
+            ByteBuffer buffer = outbound.peek();
+            outboundBytes -= socketChannel.write(buffer);
+            if (buffer.hasRemaining()) {
+                break;
+            }
+            outbound.poll();
+        }
+        if (outboundBytes < MAX_OUTBOUND_BYTES) {
+            writable.signalAll();
+        }
+        if (key != null && key.isValid()) {
+            // Read again once the delegated tasks are done, the engine can't take more input until then
+            int interest = runningTasks ? 0 : SelectionKey.OP_READ;
+            if (!outbound.isEmpty()) {
+                interest |= SelectionKey.OP_WRITE;
+            }
+            if (key.interestOps() != interest) {
+                key.interestOps(interest);
+                loop.wakeup();
+            }
+        }
+    }
+
+    private void checkHandshake(SSLEngineResult result) throws IOException {
+        if (!handshakeFinished && result.getHandshakeStatus() == FINISHED) {
+            finishHandshake();
+        }
+    }
+
+    private void finishHandshake() throws IOException {
+        handshakeFinished = true;
+        if (handshakeDeadline != null) {
+            handshakeDeadline.cancel(false);
+        }
+        HandshakeCounter counter = engine.getUseClientMode() ? TlsContexts.CLIENT_HANDSHAKES : TlsContexts.SERVER_HANDSHAKES;
+        counter.record(engine.getSession(), openedAt);
+        while (!pendingFrames.isEmpty()) {
+            ByteBuffer frame = pendingFrames.poll();
+            outboundBytes -= frame.remaining();
+            wrap(frame);
+        }
+    }
+
+    private void collectFrames() throws IOException {
+        appIn.flip();
+        try {
+            decoder.feed(appIn, this::deliver);
+        } finally {
+            appIn.clear();
+        }
+    }
+
+    private void deliver(byte[] frame) {
+        undelivered.add(frame);
+    }
+
+    private void closeInbound() {
+        try {
+            engine.closeInbound();
+        } catch (SSLException ignored) {}
+    }
+
+    private static ByteBuffer enlarge(ByteBuffer buffer, int minimumCapacity) {
+        ByteBuffer enlarged = ByteBuffer.allocate(Math.max(minimumCapacity, buffer.capacity() * 2));
+        buffer.flip();
+        enlarged.put(buffer);
+        return enlarged;
+    }
+}
@@ -0,0 +1,67 @@
+package poker.connection.protocol.transport;
+
+import poker.connection.protocol.codec.FrameDecoder;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class SocketTransport implements Transport {
+    private final Socket socket;
+    private final InputStream input;
+    private final OutputStream output;
+    // Not a monitor, a writer blocked on the socket would pin the carrier of its virtual thread
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public SocketTransport(Socket socket) throws IOException {
+        this.socket = socket;
+        input = socket.getInputStream();
+        output = new BufferedOutputStream(socket.getOutputStream());
+    }
+
+    @Override
+    public void start(FrameHandler handler) {
+        Thread.ofVirtual().name("socket-reader-" + getAddress()).start(() -> readFrames(handler));
+    }
+
+    private void readFrames(FrameHandler handler) {
+        FrameDecoder decoder = new FrameDecoder();
+        byte[] buffer = new byte[8192];
+        try {
+            int read;
+            while ((read = input.read(buffer)) >= 0) {
+                decoder.feed(ByteBuffer.wrap(buffer, 0, read), handler::onFrame);
+            }
+            handler.onClose(new EOFException("End of stream reached"));
+        } catch (IOException e) {
+            handler.onClose(e);
+        }
+    }
+
+    @Override
+    public void write(byte[] frame) throws IOException {
+        writeLock.lock();
+        try {
+            output.write(frame);
+            output.flush();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return socket.isClosed();
+    }
+
+    @Override
+    public String getAddress() {
+        return socket.getInetAddress().getHostAddress();
+    }
+}
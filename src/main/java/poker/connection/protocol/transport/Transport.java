@@ -0,0 +1,23 @@
+package poker.connection.protocol.transport;
+
+import java.io.IOException;
+
+public interface Transport {
+
+    void start(FrameHandler handler);
+
+    void write(byte[] frame) throws IOException;
+
+    void close() throws IOException;
+
+    boolean isClosed();
+
+    String getAddress();
+
+    // Called on the thread reading the transport, which may be serving other connections too, so it must not block
+    interface FrameHandler {
+        void onFrame(byte[] frame);
+
+        void onClose(IOException cause);
+    }
+}
@@ -0,0 +1,7 @@
+package poker.connection.server.authentication;
+
+public class AuthenticationBusyException extends Exception {
+    public AuthenticationBusyException(String message) {
+        super(message);
+    }
+}
@@ -2,52 +2,77 @@ package poker.connection.server.authentication;
 
 import poker.Server;
 import poker.connection.protocol.channels.ServerChannel;
+import poker.connection.protocol.transport.SelectorLoop;
+import poker.connection.protocol.transport.Transport;
+import poker.connection.utils.TlsContexts;
 import poker.connection.utils.VirtualThread;
 
 import javax.net.ssl.*;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.SocketException;
-import java.security.KeyStore;
+import java.net.SocketTimeoutException;
 import java.sql.SQLException;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+/*
+    Accepting, the TLS handshake and authentication are separate stages, so a flood of new connections or a client
+    that never finishes its handshake doesn't slow down accepting the next one. The accept loop only accepts, each
+    handshake runs on its own virtual thread with HANDSHAKE_TIMEOUT to complete in total, and only then is an Authenticator
+    started. Authenticators leave the registry when they finish, it only holds the connections still authenticating.
+    The backlog and handshake timeout (seconds) come from the poker.acceptBacklog and poker.tls.handshakeTimeout system
+    properties.
+ */
 public class AuthenticationManager extends VirtualThread {
+    private static final int ACCEPT_BACKLOG = Integer.getInteger("poker.acceptBacklog", 1024);
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = Integer.getInteger("poker.tls.handshakeTimeout", 10) * 1000;
+
     private final Server server;
     private final int port;
-    private final Set<Authenticator> authenticators = new HashSet<>();
+    private final Set<Authenticator> authenticators = ConcurrentHashMap.newKeySet();
+    private final ExecutorService handshakes = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledThreadPoolExecutor handshakeDeadlines = new ScheduledThreadPoolExecutor(
+            1, Thread.ofPlatform().name("handshake-deadlines").daemon().factory()
+    );
 
     public AuthenticationManager(Server server, int port) {
         this.server = server;
         this.port = port;
+        // Almost every deadline is cancelled by a handshake that completes
+        handshakeDeadlines.setRemoveOnCancelPolicy(true);
     }
 
     @Override
     protected void run() {
-        handleAuthentication();
+        if (server.isNioTransportEnabled()) {
+            handleSelectorAuthentication();
+        } else {
+            handleAuthentication();
+        }
     }
 
     private void handleAuthentication() {
-        SSLServerSocketFactory serverSocketFactory = getServerSocketFactory();
-        try (SSLServerSocket serverSocket = (SSLServerSocket) serverSocketFactory.createServerSocket(port)) {
+        SSLServerSocketFactory serverSocketFactory = TlsContexts.server().getServerSocketFactory();
+        try (SSLServerSocket serverSocket = (SSLServerSocket) serverSocketFactory.createServerSocket(port, ACCEPT_BACKLOG)) {
             System.out.println("Server is listening on port " + port);
 
             SSLSocket socket;
 
             while (!this.isInterrupted() && (socket = (SSLSocket) serverSocket.accept()) != null) {
-                Authenticator authenticator = new Authenticator(server, new ServerChannel(socket));
-                server.log("New connection from " + socket.getInetAddress().getHostAddress());
-                authenticators.add(authenticator);
-                authenticator.start();
+                TlsContexts.countHandshake(socket, TlsContexts.SERVER_HANDSHAKES, System.currentTimeMillis());
+                SSLSocket accepted = socket;
+                handshakes.execute(() -> handshake(accepted));
             }
 
             if (this.isInterrupted()) {
                 server.log("Authentication manager interrupted");
                 server.log("Closing all connections");
-                for (Authenticator authenticator : authenticators) {
-                    authenticator.interrupt();
-                }
+                interruptAuthenticators();
             }
         } catch (SocketException e) {
             System.out.println("Socket application.connection closed");
@@ -56,23 +81,85 @@ public class AuthenticationManager extends VirtualThread {
         }
     }
 
-    private SSLServerSocketFactory getServerSocketFactory() {
-        SSLServerSocketFactory serverSocketFactory;
+    private void handleSelectorAuthentication() {
+        SelectorLoop selectorLoop;
         try {
-            InputStream keyStoreInputStream = getClass().getClassLoader().getResourceAsStream("server_keystore.p12");
-            KeyStore keyStore = KeyStore.getInstance("PKCS12");
-            keyStore.load(keyStoreInputStream, "server_keystore".toCharArray());
+            selectorLoop = new SelectorLoop();
+            selectorLoop.listen(port, ACCEPT_BACKLOG, TlsContexts.server(), HANDSHAKE_TIMEOUT_MILLIS, this::startAuthenticator);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        selectorLoop.start();
+        System.out.println("Server is listening on port " + port + " (NIO transport)");
 
-            KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
-            keyManagerFactory.init(keyStore, "server_keystore".toCharArray());
+        try {
+            selectorLoop.join();
+        } catch (InterruptedException e) {
+            server.log("Authentication manager interrupted");
+            server.log("Closing all connections");
+            selectorLoop.closeListeners();
+            interruptAuthenticators();
+        }
+    }
 
-            SSLContext sslContext = SSLContext.getInstance("TLS");
-            sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+    /*
+        The handshake would otherwise happen on the first read, with no limit on how long it takes. The read timeout
+        alone only limits each read, a client trickling bytes could keep the handshake going, so the socket is also
+        closed once the deadline passes. Closing is done on a virtual thread, a close that waits for the handshake
+        mustn't hold up the other deadlines.
+     */
+    private void handshake(SSLSocket socket) {
+        String address = socket.getInetAddress().getHostAddress();
+        ScheduledFuture<?> deadline = handshakeDeadlines.schedule(
+                () -> Thread.ofVirtual().start(() -> close(socket)),
+                HANDSHAKE_TIMEOUT_MILLIS,
+                TimeUnit.MILLISECONDS
+        );
+        ServerChannel channel;
+        try {
+            socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+            socket.startHandshake();
+            if (!deadline.cancel(false)) {
+                throw new SocketTimeoutException("Handshake took longer than " + HANDSHAKE_TIMEOUT_MILLIS + "ms");
+            }
+            socket.setSoTimeout(0);
+            channel = new ServerChannel(socket);
+        } catch (IOException e) {
+            deadline.cancel(false);
+            server.log("TLS handshake failed for " + address + ": " + e.getMessage());
+            close(socket);
+            return;
+        }
+        startAuthenticator(channel, address);
+    }
 
-            serverSocketFactory = sslContext.getServerSocketFactory();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+    private static void close(SSLSocket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {}
+    }
+
+    // The selector transport handshakes on the selector loop without blocking it
+    private void startAuthenticator(Transport transport) {
+        startAuthenticator(new ServerChannel(transport), transport.getAddress());
+    }
+
+    private void startAuthenticator(ServerChannel channel, String address) {
+        Authenticator authenticator = new Authenticator(server, channel, authenticators::remove);
+        server.log("New connection from " + address);
+        authenticators.add(authenticator);
+        authenticator.start();
+    }
+
+    private void interruptAuthenticators() {
+        handshakes.shutdownNow();
+        handshakeDeadlines.shutdownNow();
+        for (Authenticator authenticator : authenticators) {
+            authenticator.interrupt();
         }
-        return serverSocketFactory;
+    }
+
+    public int getAuthenticating() {
+        return authenticators.size();
     }
 }
@@ -1,6 +1,5 @@
 package poker.connection.server.authentication;
 
-import org.mindrot.jbcrypt.BCrypt;
 import poker.Server;
 import poker.connection.protocol.Connection;
 import poker.connection.protocol.channels.ServerChannel;
@@ -9,21 +8,32 @@ import poker.connection.protocol.exceptions.ClosedConnectionException;
 import poker.connection.protocol.exceptions.RequestTimeoutException;
 import poker.connection.protocol.message.Message;
 import poker.connection.server.database.DatabaseInterface;
+import poker.connection.server.database.Session;
+import poker.connection.server.database.SessionStore;
 import poker.connection.utils.VirtualThread;
 
 import java.sql.SQLException;
+import java.util.function.Consumer;
 
 public class Authenticator extends VirtualThread {
+    private static final int RETRY_AFTER_SECONDS = 1;
+
     private final Server server;
     private final ServerChannel channel;
     private final DatabaseInterface database;
+    private final PasswordHasher passwordHasher;
+    private final SessionStore sessions;
+    private final Consumer<Authenticator> onFinish;
 
     private int authenticationAttempts = 3;
 
-    public Authenticator(Server server, ServerChannel channel) {
+    public Authenticator(Server server, ServerChannel channel, Consumer<Authenticator> onFinish) {
         this.server = server;
+        this.onFinish = onFinish;
         this.channel = channel;
         this.database = server.getDatabase();
+        this.passwordHasher = server.getPasswordHasher();
+        this.sessions = server.getSessionStore();
     }
 
     @Override
@@ -38,8 +48,16 @@ public class Authenticator extends VirtualThread {
                 );
                 channel.setSessionToken(connection.getSession());
                 server.queuePlayer(connection);
+            } else {
+                // Nothing else will read this channel, the socket would be held until the client gives up
+                channel.flush(1);
+                channel.close();
             }
-        } catch (ClosedConnectionException ignored) {}
+        } catch (ClosedConnectionException ignored) {
+            channel.close();
+        } finally {
+            onFinish.accept(this);
+        }
     }
 
     private Connection handleRequests() throws ClosedConnectionException {
@@ -59,6 +77,7 @@ public class Authenticator extends VirtualThread {
                 server.log("Error while reading request from " + channel.getAddress() + " during authentication");
                 return null;
             }
+            channel.negotiateCapabilities(request);
             switch (request.getState()) {
                 case AUTHENTICATION -> {
                     connection = authenticateUser(request);
@@ -89,23 +108,16 @@ public class Authenticator extends VirtualThread {
             return null;
         }
 
-        String token = message.getAttribute("sessionToken");
-        String username = database.recoverSession(token);
-
-        if (username != null) {
-            String newToken = generateSession(username);
-            if (newToken != null) {
-                String body = "Session recovered successfully. Welcome back, " + username + "!";
-                channel.acceptConnectionRecovery(body, newToken);
-                return new Connection(username, newToken, channel, database.getUserRank(username));
-            }
-            else
-                rejectAuthentication("Something went wrong while generating session");
-        } else {
+        Session session = sessions.recover(message.getAttribute("sessionToken"));
+        if (session == null) {
             channel.rejectConnectionRecovery("Invalid or expired session token");
+            return null;
         }
 
-        return null;
+        Session renewed = sessions.create(session.username(), session.rank());
+        String body = "Session recovered successfully. Welcome back, " + session.username() + "!";
+        channel.acceptConnectionRecovery(body, renewed.token());
+        return new Connection(renewed.username(), renewed.token(), channel, renewed.rank());
     }
 
     private Connection authenticateUser(Message request) throws ClosedConnectionException {
@@ -123,23 +135,25 @@ public class Authenticator extends VirtualThread {
         } catch (SQLException e) {
             rejectAuthentication("Something went wrong while authenticating user");
             return null;
+        } catch (AuthenticationBusyException e) {
+            server.log("Authentication deferred for " + channel.getAddress() + ": " + e.getMessage());
+            channel.deferAuthentication("Server is busy, please try again later", RETRY_AFTER_SECONDS);
+            return null;
         }
     }
 
-    private Connection handleRegistration(String username, String password) throws SQLException, ClosedConnectionException {
-        if (database.registerUser(username, password)) {
-            Connection connection = login(username, password);
-            if (connection != null) {
-                channel.acceptAuthentication("User successfully registered", connection.getSession());
-                return connection;
-            }
+    private Connection handleRegistration(String username, String password) throws ClosedConnectionException, AuthenticationBusyException {
+        if (database.registerUser(username, passwordHasher.hash(password))) {
+            Connection connection = startSession(username);
+            channel.acceptAuthentication("User successfully registered", connection.getSession());
+            return connection;
         }
         else
             rejectAuthentication("Something went wrong while registering user");
         return null;
     }
 
-    private Connection handleLogin(String username, String password) throws SQLException, ClosedConnectionException {
+    private Connection handleLogin(String username, String password) throws SQLException, ClosedConnectionException, AuthenticationBusyException {
         Connection connection = login(username, password);
         if (connection != null) {
             channel.acceptAuthentication("User successfully logged in", connection.getSession());
@@ -148,31 +162,24 @@ public class Authenticator extends VirtualThread {
         return null;
     }
 
-    private Connection login(String username, String password) throws SQLException, ClosedConnectionException {
-        if (database.authenticateUser(username, password)) {
-            String token = generateSession(username);
-            if (token != null) {
-                return new Connection(username, token, channel, database.getUserRank(username));
-            } else
-                rejectAuthentication("Something went wrong while generating session");
+    private Connection login(String username, String password) throws SQLException, ClosedConnectionException, AuthenticationBusyException {
+        String hashedPassword = database.getPasswordHash(username);
+        if (hashedPassword != null && passwordHasher.check(password, hashedPassword)) {
+            return startSession(username);
         } else
             rejectAuthentication("Invalid username or password");
         return null;
     }
 
+    private Connection startSession(String username) {
+        Session session = sessions.create(username, database.getUserRank(username));
+        return new Connection(username, session.token(), channel, session.rank());
+    }
+
     private void rejectAuthentication(String body) throws ClosedConnectionException {
         if (--authenticationAttempts == 0)
             terminateConnection("Too many failed authentication attempts");
         else
             channel.rejectAuthentication(body);
     }
-
-    private String generateSession(String username) {
-        String token = BCrypt.hashpw(username, BCrypt.gensalt());
-        long durationMillis = 24 * 3600 * 1000;
-        if (database.createSession(username, token, durationMillis)) {
-            return token;
-        }
-        return null;
-    }
 }
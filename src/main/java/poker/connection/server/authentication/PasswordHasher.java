@@ -0,0 +1,61 @@
+package poker.connection.server.authentication;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+    Runs bcrypt on one platform thread per core instead of on the virtual threads of the connections, so a login storm
+    can't take every carrier thread away from the games. Work that doesn't fit in the queue is refused right away and
+    the client is told to retry later.
+ */
+public class PasswordHasher {
+    private static final int QUEUED_PER_THREAD = 8;
+
+    private final ExecutorService executor;
+
+    public PasswordHasher() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public PasswordHasher(int threads) {
+        AtomicInteger created = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUED_PER_THREAD),
+                runnable -> Thread.ofPlatform().daemon().name("bcrypt-" + created.incrementAndGet()).unstarted(runnable),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    public String hash(String password) throws AuthenticationBusyException {
+        return run(() -> BCrypt.hashpw(password, BCrypt.gensalt()));
+    }
+
+    public boolean check(String password, String hashedPassword) throws AuthenticationBusyException {
+        return run(() -> BCrypt.checkpw(password, hashedPassword));
+    }
+
+    private <T> T run(Callable<T> task) throws AuthenticationBusyException {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new AuthenticationBusyException("Too many authentications in progress");
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationBusyException("Interrupted while waiting for authentication");
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
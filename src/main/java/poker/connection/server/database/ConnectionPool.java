@@ -0,0 +1,75 @@
+package poker.connection.server.database;
+
+import org.sqlite.SQLiteConfig;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/*
+    A fixed set of SQLite connections to one database file. The database runs in WAL mode, so readers never wait for
+    the writer, and writers wait up to BUSY_TIMEOUT_MILLIS for each other instead of failing with SQLITE_BUSY.
+    Each connection keeps its prepared statements for as long as it lives.
+ */
+public class ConnectionPool {
+    private static final int BUSY_TIMEOUT_MILLIS = 5000;
+
+    private final BlockingQueue<PooledConnection> idle;
+
+    public ConnectionPool(String dbFile, int size) throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        config.setBusyTimeout(BUSY_TIMEOUT_MILLIS);
+
+        idle = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            idle.add(new PooledConnection(DriverManager.getConnection("jdbc:sqlite:" + dbFile, config.toProperties())));
+        }
+    }
+
+    // Blocks until a connection is free, closing the returned connection gives it back
+    public PooledConnection acquire() throws SQLException {
+        try {
+            return idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+    }
+
+    public class PooledConnection implements AutoCloseable {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        public Connection getConnection() {
+            return connection;
+        }
+
+        // The statement stays open and cached, only its result sets should be closed by the caller
+        public PreparedStatement prepare(String query) throws SQLException {
+            PreparedStatement stmt = statements.get(query);
+            if (stmt == null) {
+                stmt = connection.prepareStatement(query);
+                statements.put(query, stmt);
+            } else {
+                stmt.clearParameters();
+            }
+            return stmt;
+        }
+
+        @Override
+        public void close() {
+            idle.add(this);
+        }
+    }
+}
@@ -1,25 +1,31 @@
 package poker.connection.server.database;
 
-import org.mindrot.jbcrypt.BCrypt;
-
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
 
 public class DatabaseInterface {
-    private final Connection database;
+    private static final int POOL_SIZE = 4;
+
+    private final ConnectionPool pool;
     private final String path = System.getProperty("user.dir") + "/database/";
 
     public DatabaseInterface() {
         String dbFile = path + "poker.db";
 
         try {
-            if (!Files.exists(Paths.get(dbFile))) {
-                database = DriverManager.getConnection("jdbc:sqlite:" + dbFile);
+            boolean exists = Files.exists(Paths.get(dbFile));
+            if (!exists) {
+                // WAL files left behind by a database that was deleted would be replayed into the new one
+                Files.deleteIfExists(Paths.get(dbFile + "-wal"));
+                Files.deleteIfExists(Paths.get(dbFile + "-shm"));
+            }
+            pool = new ConnectionPool(dbFile, POOL_SIZE);
+            if (!exists) {
                 reset();
-            } else {
-                database = DriverManager.getConnection("jdbc:sqlite:" + dbFile);
             }
         } catch (SQLException | IOException e) {
             throw new RuntimeException(e);
@@ -27,35 +33,38 @@ public class DatabaseInterface {
     }
 
     public boolean userExists(String username) throws SQLException {
-        String query = "SELECT * FROM User WHERE username = ?";
+        String query = "SELECT 1 FROM User WHERE username = ?";
 
-        PreparedStatement stmt = database.prepareStatement(query);
-        stmt.setString(1, username);
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            PreparedStatement stmt = connection.prepare(query);
+            stmt.setString(1, username);
 
-        return stmt.executeQuery().next();
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
     }
 
-    public boolean authenticateUser(String username, String password) throws SQLException {
+    // Null if the user doesn't exist
+    public String getPasswordHash(String username) throws SQLException {
         String query = "SELECT password FROM User WHERE username = ?";
 
-        PreparedStatement stmt = database.prepareStatement(query);
-        stmt.setString(1, username);
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            PreparedStatement stmt = connection.prepare(query);
+            stmt.setString(1, username);
 
-        ResultSet rs = stmt.executeQuery();
-        if (!rs.next()) {
-            return false;
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString("password") : null;
+            }
         }
-
-        String hashedPassword = rs.getString("password");
-        return BCrypt.checkpw(password, hashedPassword);
     }
 
-    public boolean registerUser(String username, String password) {
-        String hashedPassword = BCrypt.hashpw(password, BCrypt.gensalt());
+    // Takes the bcrypt hash of the password, hashing is left to the caller so it can happen off the caller's thread
+    public boolean registerUser(String username, String hashedPassword) {
         String query = "INSERT INTO User (username, password) VALUES (?, ?)";
 
-        try {
-            PreparedStatement stmt = database.prepareStatement(query);
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            PreparedStatement stmt = connection.prepare(query);
             stmt.setString(1, username);
             stmt.setString(2, hashedPassword);
             stmt.executeUpdate();
@@ -65,12 +74,11 @@ public class DatabaseInterface {
         }
     }
 
-    public boolean registerUser(String username, String password, int rank) {
-        String hashedPassword = BCrypt.hashpw(password, BCrypt.gensalt());
+    public boolean registerUser(String username, String hashedPassword, int rank) {
         String query = "INSERT INTO User (username, password, rank) VALUES (?, ?, ?)";
 
-        try {
-            PreparedStatement stmt = database.prepareStatement(query);
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            PreparedStatement stmt = connection.prepare(query);
             stmt.setString(1, username);
             stmt.setString(2, hashedPassword);
             stmt.setInt(3, rank);
@@ -81,49 +89,63 @@ public class DatabaseInterface {
         }
     }
 
-    public boolean createSession(String username, String sessionToken, long duration) {
-        String query = "UPDATE User SET session_token = ?, session_expiration = ? WHERE username = ?";
-
-        try {
-            PreparedStatement stmt = database.prepareStatement(query);
-            stmt.setString(1, sessionToken);
-            stmt.setDate(2, new Date(System.currentTimeMillis() + duration));
-            stmt.setString(3, username);
-            stmt.executeUpdate();
-            return true;
-        } catch (SQLException e) {
-            return false;
+    // Unexpired sessions with the rank of their user
+    public ArrayList<Session> loadSessions(long now) throws SQLException {
+        String query = "SELECT username, session_token, session_expiration, rank FROM User WHERE session_token IS NOT NULL AND session_expiration > ?";
+
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            PreparedStatement stmt = connection.prepare(query);
+            stmt.setDate(1, new Date(now));
+            try (ResultSet rs = stmt.executeQuery()) {
+                ArrayList<Session> sessions = new ArrayList<>();
+                while (rs.next()) {
+                    sessions.add(new Session(rs.getString("username"), rs.getString("session_token"),
+                            rs.getDate("session_expiration").getTime(), rs.getInt("rank")));
+                }
+                return sessions;
+            }
         }
     }
 
-    public String recoverSession(String sessionToken) {
-        String query = "SELECT username FROM User WHERE session_token = ? AND session_expiration > ?";
+    // Writes all the sessions in a single transaction
+    public void saveSessions(Collection<Session> sessions) throws SQLException {
+        String query = "UPDATE User SET session_token = ?, session_expiration = ? WHERE username = ?";
 
-        try {
-            PreparedStatement stmt = database.prepareStatement(query);
-            stmt.setString(1, sessionToken);
-            stmt.setDate(2, new Date(System.currentTimeMillis()));
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getString("username");
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            Connection conn = connection.getConnection();
+            PreparedStatement stmt = connection.prepare(query);
+            conn.setAutoCommit(false);
+            try {
+                for (Session session : sessions) {
+                    stmt.setString(1, session.token());
+                    stmt.setDate(2, new Date(session.expiration()));
+                    stmt.setString(3, session.username());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                stmt.clearBatch();
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
-            return null;
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
         }
     }
 
     public String getUserSession(String username) {
         String query = "SELECT session_token FROM User WHERE username = ?";
 
-        try {
-            PreparedStatement stmt = database.prepareStatement(query);
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            PreparedStatement stmt = connection.prepare(query);
             stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getString("session_token");
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getString("session_token");
+                }
+                return null;
             }
-            return null;
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
@@ -132,14 +154,15 @@ public class DatabaseInterface {
     public int getUserRank(String username) {
         String query = "SELECT rank FROM User WHERE username = ?";
 
-        try {
-            PreparedStatement stmt = database.prepareStatement(query);
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            PreparedStatement stmt = connection.prepare(query);
             stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("rank");
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("rank");
+                }
+                return -1;
             }
-            return -1;
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
@@ -148,8 +171,8 @@ public class DatabaseInterface {
     public void updateRank(String username, int rankIncrement) {
         String query = "UPDATE User SET rank = rank + ? WHERE username = ?";
 
-        try {
-            PreparedStatement stmt = database.prepareStatement(query);
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            PreparedStatement stmt = connection.prepare(query);
             stmt.setInt(1, rankIncrement);
             stmt.setString(2, username);
             stmt.executeUpdate();
@@ -163,6 +186,9 @@ public class DatabaseInterface {
 
         String sql = Files.readString(Paths.get(sqlFile));
 
-        database.createStatement().executeUpdate(sql);
+        try (ConnectionPool.PooledConnection connection = pool.acquire();
+             Statement stmt = connection.getConnection().createStatement()) {
+            stmt.executeUpdate(sql);
+        }
     }
 }
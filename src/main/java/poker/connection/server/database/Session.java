@@ -0,0 +1,5 @@
+package poker.connection.server.database;
+
+// Expiration in epoch milliseconds, the rank is cached with the session so a recovery doesn't have to look it up
+public record Session(String username, String token, long expiration, int rank) {
+}
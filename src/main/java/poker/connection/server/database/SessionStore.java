@@ -0,0 +1,179 @@
+package poker.connection.server.database;
+
+import poker.Server;
+
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    The live sessions, indexed by token and by username, each user having at most one. It starts with the unexpired
+    sessions of the database, so recovering a session is a lookup in memory even right after a restart. Sessions are
+    evicted in expiration order as they expire. New sessions are written behind to the User table: a flusher thread
+    saves everything created in the last FLUSH_DELAY_MILLIS in a single transaction.
+ */
+public class SessionStore {
+    private static final long SESSION_DURATION_MILLIS = TimeUnit.HOURS.toMillis(24);
+    private static final long FLUSH_DELAY_MILLIS = 100;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private static final int TOKEN_BYTES = 32;
+
+    private final Server server;
+    private final DatabaseInterface database;
+    private final SecureRandom tokenRandom = new SecureRandom();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition dirtyCondition = lock.newCondition();
+    private final Map<String, Session> byToken = new HashMap<>();
+    private final Map<String, Session> byUsername = new HashMap<>();
+    private final TreeSet<Session> byExpiration = new TreeSet<>(
+            Comparator.comparingLong(Session::expiration).thenComparing(Session::token)
+    );
+    private Map<String, Session> dirty = new HashMap<>();
+    private boolean closed = false;
+    private Thread flusher;
+
+    public SessionStore(Server server, DatabaseInterface database) {
+        this.server = server;
+        this.database = database;
+        try {
+            for (Session session : database.loadSessions(System.currentTimeMillis())) {
+                index(session);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void start() {
+        flusher = Thread.ofVirtual().name("session-flusher").start(this::flushLoop);
+    }
+
+    // Replaces the user's previous session, if any
+    public Session create(String username, int rank) {
+        Session session = new Session(username, newToken(), System.currentTimeMillis() + SESSION_DURATION_MILLIS, rank);
+        lock.lock();
+        try {
+            evictExpired();
+            index(session);
+            dirty.put(username, session);
+            dirtyCondition.signal();
+        } finally {
+            lock.unlock();
+        }
+        return session;
+    }
+
+    // Null if there is no such session or it has expired
+    public Session recover(String token) {
+        lock.lock();
+        try {
+            evictExpired();
+            return byToken.get(token);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void updateRank(String username, int rank) {
+        lock.lock();
+        try {
+            Session session = byUsername.get(username);
+            if (session != null) {
+                index(new Session(username, session.token(), session.expiration(), rank));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Stops the flusher once the sessions still waiting to be written are saved
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            dirtyCondition.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (flusher != null) {
+            try {
+                flusher.join();
+            } catch (InterruptedException ignored) {}
+        }
+    }
+
+    private void index(Session session) {
+        Session previous = byUsername.put(session.username(), session);
+        if (previous != null) {
+            byToken.remove(previous.token());
+            byExpiration.remove(previous);
+        }
+        byToken.put(session.token(), session);
+        byExpiration.add(session);
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        while (!byExpiration.isEmpty() && byExpiration.first().expiration() <= now) {
+            Session session = byExpiration.pollFirst();
+            byToken.remove(session.token());
+            byUsername.remove(session.username());
+        }
+    }
+
+    // Tokens only need to be unguessable, a random 256 bit value costs far less than hashing anything with bcrypt
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        tokenRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private void flushLoop() {
+        while (true) {
+            Map<String, Session> batch;
+            lock.lock();
+            try {
+                while (dirty.isEmpty() && !closed) {
+                    dirtyCondition.awaitUninterruptibly();
+                }
+                if (dirty.isEmpty()) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            // Lets the sessions of a reconnection storm pile up into one transaction
+            try {
+                Thread.sleep(FLUSH_DELAY_MILLIS);
+            } catch (InterruptedException ignored) {}
+
+            lock.lock();
+            try {
+                batch = dirty;
+                dirty = new HashMap<>();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                database.saveSessions(batch.values());
+            } catch (SQLException e) {
+                server.log("Failed to save " + batch.size() + " sessions, retrying: " + e.getMessage());
+                lock.lock();
+                try {
+                    // Sessions created since the batch was taken are newer than the ones that failed
+                    batch.forEach(dirty::putIfAbsent);
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } catch (InterruptedException ignored) {}
+            }
+        }
+    }
+}
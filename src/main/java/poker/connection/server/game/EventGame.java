@@ -0,0 +1,279 @@
+package poker.connection.server.game;
+
+import poker.Server;
+import poker.connection.protocol.Connection;
+import poker.connection.protocol.MessageListener;
+import poker.connection.protocol.message.Message;
+import poker.game.common.PokerPlayer;
+import poker.game.server.Poker;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static poker.connection.protocol.message.State.MATCH_PLAY;
+
+/*
+    The same match as Game, played as a state machine on a shard of the TableEngine instead of a thread blocked on
+    each player in turn. Every step runs on the shard: a turn sends the game state and prompts the current player, then
+    returns, and the next step is either the move arriving through the listener of the player's channel, the player's
+    channel closing, or the turn timer expiring. Moves from anyone but the player whose turn it is are ignored, and a
+    step that fails folds the player whose turn it was. Equities of an all-in showdown are computed off the shard,
+    the table waits for them without prompting anyone. Ranks and requeueing go through the database and the queuer,
+    so they are done off the shard when the match is over.
+ */
+public class EventGame implements GameRoom {
+    private static final int MOVE_TIMEOUT_SECONDS = 30;
+
+    private final Server server;
+    private final TableEngine engine;
+    private final ScheduledExecutorService shard;
+    private final ArrayList<Connection> playerConnections;
+    private final ArrayList<Outbox> outboxes;
+    private final Poker poker;
+    private int awaitedPlayer = -1;
+    private ScheduledFuture<?> moveTimeout = null;
+    private boolean settling = false;
+    private boolean finished = false;
+
+    public EventGame(Server server, TableEngine engine, ArrayList<Connection> playerConnections) {
+        this.server = server;
+        this.engine = engine;
+        this.shard = engine.assignShard();
+        this.playerConnections = playerConnections;
+        this.outboxes = Games.outboxes(server, playerConnections);
+        poker = new Poker(Games.usernames(playerConnections), server.newTableRandom());
+    }
+
+    @Override
+    public void start() {
+        engine.tableStarted();
+        execute(this::begin);
+    }
+
+    // Waits for the shard, the queuer needs to know whether the player made it back
+    @Override
+    public boolean reconnectPlayer(Connection newConnection) {
+        try {
+            return shard.submit(() -> reconnect(newConnection)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void execute(Runnable step) {
+        try {
+            shard.execute(() -> runStep(step));
+        } catch (RejectedExecutionException e) {
+            server.log("Table engine stopped, dropping game step");
+        }
+    }
+
+    // The shard would swallow the exception, and the table would wait on a player whose move was already received
+    private void runStep(Runnable step) {
+        try {
+            step.run();
+        } catch (RuntimeException e) {
+            server.log("Error in game step: " + e);
+            if (!finished && awaitedPlayer != -1) {
+                server.log("Player " + playerConnections.get(awaitedPlayer).getUsername() + " is FOLDING");
+                foldOrFinish();
+            }
+        }
+    }
+
+    // If not even a fold goes through, the table can't go on and the players are let go
+    private void foldOrFinish() {
+        try {
+            play(PokerPlayer.PLAYER_ACTION.FOLD, 0);
+        } catch (RuntimeException e) {
+            server.log("Error folding: " + e + ". Ending the game");
+            finish();
+        }
+    }
+
+    private void begin() {
+        for (int i = 0; i < playerConnections.size(); i++) {
+            listen(playerConnections.get(i));
+            outboxes.get(i).notifyGameStart();
+        }
+        startHand();
+    }
+
+    private void listen(Connection connection) {
+        connection.getChannel().setListener(new MessageListener() {
+            @Override
+            public void onMessage(Message message) {
+                execute(() -> receiveMove(connection, message));
+            }
+
+            @Override
+            public void onClose(String reason) {
+                execute(() -> disconnect(connection));
+            }
+        });
+    }
+
+    private void startHand() {
+        if (poker.getIsGameOver()) {
+            sendGameState();
+            finish();
+            return;
+        }
+        if (poker.getHandSeed() != null) {
+            server.log("Hand " + poker.getHandsPlayed() + " shuffled with seed " + poker.getHandSeed());
+        }
+        nextTurn();
+    }
+
+    private void nextTurn() {
+        if (poker.getIsHandOver()) {
+            settleHand();
+            return;
+        }
+        awaitedPlayer = poker.getCurrPlayer();
+        sendGameState();
+        promptPlayer();
+        moveTimeout = shard.schedule(() -> runStep(this::timeOut), MOVE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // Sampling the equities keeps a thread busy for a while, the other tables of the shard shouldn't wait for it
+    private void settleHand() {
+        settling = true;
+        Thread.ofVirtual().name("equities").start(() -> {
+            try {
+                poker.getHandEquities();
+            } finally {
+                execute(this::endHand);
+            }
+        });
+    }
+
+    private void endHand() {
+        settling = false;
+        sendGameState();
+        Games.logEquities(server, poker, playerConnections);
+        poker.endHand();
+        execute(this::startHand);
+    }
+
+    private void promptPlayer() {
+        Connection connection = playerConnections.get(awaitedPlayer);
+        // Its channel may have closed before it was its turn, there won't be another close to wait for
+        if (connection.isBroken()) {
+            execute(() -> disconnect(connection));
+            return;
+        }
+        outboxes.get(awaitedPlayer).requestPlayerMove("It's your turn", poker.getGameStateToSend(awaitedPlayer));
+    }
+
+    private void receiveMove(Connection connection, Message message) {
+        int player = playerConnections.indexOf(connection);
+        if (finished || player == -1 || player != awaitedPlayer) {
+            server.log("Ignoring message from " + connection.getUsername() + " out of turn");
+            return;
+        }
+        String action = message.getAttribute("action");
+        Integer amount = message.getIntAttribute("amount");
+        PokerPlayer.PLAYER_ACTION playerAction = parseAction(message, action, amount);
+        if (playerAction == null) {
+            server.log(String.format(
+                    "Invalid player move received from player %d - action: %s, amount: %d. FOLDING",
+                    player,
+                    action,
+                    amount
+            ));
+            play(PokerPlayer.PLAYER_ACTION.FOLD, 0);
+            return;
+        }
+        play(playerAction, amount);
+    }
+
+    private static PokerPlayer.PLAYER_ACTION parseAction(Message message, String action, Integer amount) {
+        if (message.getState() != MATCH_PLAY || message.isRequest() || action == null || amount == null) {
+            return null;
+        }
+        try {
+            return PokerPlayer.PLAYER_ACTION.fromString(action);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void disconnect(Connection connection) {
+        int player = playerConnections.indexOf(connection);
+        if (finished || player == -1 || player != awaitedPlayer) {
+            return;
+        }
+        server.log("Player " + connection.getUsername() + " is disconnected. FOLDING");
+        play(PokerPlayer.PLAYER_ACTION.FOLD, 0);
+    }
+
+    private void timeOut() {
+        if (finished || awaitedPlayer == -1) {
+            return;
+        }
+        Connection connection = playerConnections.get(awaitedPlayer);
+        outboxes.get(awaitedPlayer).requestConnectionEnd("Player timed out while playing. May reconnect to continue");
+        server.log("Player " + connection.getUsername() + " timed out. FOLDING");
+        play(PokerPlayer.PLAYER_ACTION.FOLD, 0);
+    }
+
+    // The player is still awaited until the action is taken, so a step that fails on it folds them
+    private void play(PokerPlayer.PLAYER_ACTION action, int amount) {
+        poker.takeAction(action, amount);
+        if (moveTimeout != null) {
+            moveTimeout.cancel(false);
+        }
+        awaitedPlayer = -1;
+        execute(this::nextTurn);
+    }
+
+    private boolean reconnect(Connection newConnection) {
+        int index = Games.indexOf(playerConnections, newConnection.getUsername());
+        if (finished || index == -1) {
+            return false;
+        }
+        playerConnections.get(index).getChannel().setListener(null);
+        // Behind whatever the old connection still had queued
+        outboxes.get(index).requestConnectionEnd("Another connection was found for your account");
+        Outbox outbox = new Outbox(server, newConnection);
+        outboxes.set(index, outbox);
+        playerConnections.set(index, newConnection);
+        listen(newConnection);
+        // Poker is busy with the equities, the game state goes to every outbox once the hand is settled
+        if (!settling) {
+            outbox.sendGameState(poker.getGameStateToSend(index));
+        }
+        // The turn timer keeps running, the player only gets what was left of it
+        if (index == awaitedPlayer) {
+            promptPlayer();
+        }
+        return newConnection.getChannel().isOpen();
+    }
+
+    private void sendGameState() {
+        for (int i = 0; i < playerConnections.size(); i++) {
+            outboxes.get(i).sendGameState(poker.getGameStateToSend(i));
+        }
+    }
+
+    private void finish() {
+        finished = true;
+        for (Connection connection : playerConnections) {
+            connection.getChannel().setListener(null);
+        }
+        server.log("Game finished");
+        engine.tableFinished();
+        Thread.ofVirtual().start(() -> {
+            Games.awaitDrained(outboxes);
+            Games.finishGame(server, poker, playerConnections);
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package poker.connection.server.game;
+
+import poker.connection.protocol.Connection;
+
+// A match in progress, whichever engine runs it
+public interface GameRoom {
+    void start();
+
+    boolean reconnectPlayer(Connection newConnection);
+}
@@ -0,0 +1,86 @@
+package poker.connection.server.game;
+
+import poker.Server;
+import poker.connection.protocol.Connection;
+import poker.game.common.Equity;
+import poker.game.common.PokerPlayer;
+import poker.game.server.Poker;
+
+import java.util.ArrayList;
+
+// What every engine does around a match, apart from playing it
+final class Games {
+    private Games() {
+    }
+
+    static ArrayList<String> usernames(ArrayList<Connection> playerConnections) {
+        ArrayList<String> playerUsernames = new ArrayList<>();
+        for (Connection connection : playerConnections) {
+            playerUsernames.add(connection.getUsername());
+        }
+        return playerUsernames;
+    }
+
+    static ArrayList<Outbox> outboxes(Server server, ArrayList<Connection> playerConnections) {
+        ArrayList<Outbox> outboxes = new ArrayList<>();
+        for (Connection connection : playerConnections) {
+            outboxes.add(new Outbox(server, connection));
+        }
+        return outboxes;
+    }
+
+    // Every player gets the end of the match before being asked to requeue, for as long as one slow player may take
+    static void awaitDrained(ArrayList<Outbox> outboxes) {
+        long deadline = Outbox.drainDeadline();
+        for (Outbox outbox : outboxes) {
+            outbox.awaitDrained(deadline);
+        }
+    }
+
+    static int indexOf(ArrayList<Connection> playerConnections, String username) {
+        for (int i = 0; i < playerConnections.size(); i++) {
+            if (playerConnections.get(i).getUsername().equals(username)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static void logEquities(Server server, Poker poker, ArrayList<Connection> playerConnections) {
+        ArrayList<Equity> equities = poker.getHandEquities();
+        if (equities.isEmpty()) {
+            return;
+        }
+        StringBuilder sb = new StringBuilder("All-in equities for hand " + poker.getHandsPlayed() + ":");
+        for (int i = 0; i < equities.size(); i++) {
+            Equity equity = equities.get(i);
+            if (equity != null) {
+                sb.append(String.format("\n%s: %.1f%% win, %.1f%% tie", playerConnections.get(i).getUsername(), equity.win() * 100, equity.tie() * 100));
+            }
+        }
+        server.log(sb.toString());
+    }
+
+    static void finishGame(Server server, Poker poker, ArrayList<Connection> playerConnections) {
+        if (server.isRankedMode()) {
+            updateRanks(server, poker, playerConnections);
+        }
+        for (Connection connection : playerConnections) {
+            server.getQueuer().removePlayerFromRoom(connection);
+        }
+        server.getQueuer().requeuePlayers(playerConnections);
+    }
+
+    private static void updateRanks(Server server, Poker poker, ArrayList<Connection> playerConnections) {
+        server.log("Updating rankings");
+        for (PokerPlayer player : poker.getGameWinners()) {
+            int index = indexOf(playerConnections, player.getUsername());
+            if (index != -1) {
+                Connection connection = playerConnections.get(index);
+                server.getDatabase().updateRank(connection.getUsername(), player.getMoney() / 100);
+                connection.setRank(server.getDatabase().getUserRank(connection.getUsername()));
+                server.getSessionStore().updateRank(connection.getUsername(), connection.getRank());
+            }
+        }
+    }
+}
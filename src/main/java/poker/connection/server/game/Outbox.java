@@ -0,0 +1,199 @@
+package poker.connection.server.game;
+
+import poker.Server;
+import poker.connection.protocol.Connection;
+import poker.connection.protocol.channels.ServerChannel;
+import poker.connection.protocol.exceptions.ClosedConnectionException;
+import poker.game.common.GameState;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    What a table sends to one player, queued so the table never waits on the player's socket. Each outbox is drained
+    by its own virtual thread, started when something is queued and gone once it is empty, so a slow player only holds
+    up its own messages. The drainer hands everything pending to the channel at once and waits for it to be written
+    before taking more, so messages pile up here while the player is slow to read, and a game state waiting behind
+    another one replaces it, the player only needs the latest. A player that has had a message pending for longer than
+    STALL_LIMIT, or that lets the queue fill up anyway, can't keep up with the table and is disconnected, it may
+    reconnect like after any other disconnection.
+ */
+public class Outbox {
+    private static final int CAPACITY = 16;
+    private static final int STALL_LIMIT_SECONDS = 10;
+    private static final long STALL_LIMIT_NANOS = TimeUnit.SECONDS.toNanos(STALL_LIMIT_SECONDS);
+
+    private interface Send {
+        void send(ServerChannel channel) throws ClosedConnectionException;
+    }
+
+    private record Pending(Send send, boolean gameState, long since) {
+    }
+
+    private final Server server;
+    private final Connection connection;
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition drained = lock.newCondition();
+    private boolean draining = false;
+    // The oldest of the messages being written
+    private Pending sending = null;
+    private boolean closed = false;
+
+    public Outbox(Server server, Connection connection) {
+        this.server = server;
+        this.connection = connection;
+    }
+
+    public void notifyGameStart() {
+        offer(ServerChannel::notifyGameStart, false);
+    }
+
+    public void sendGameState(GameState gameState) {
+        offer(channel -> channel.sendGameState(gameState), true);
+    }
+
+    public void requestPlayerMove(String body, GameState gameState) {
+        offer(channel -> channel.requestPlayerMove(body, gameState), false);
+    }
+
+    public void requestConnectionEnd(String body) {
+        offer(channel -> channel.requestConnectionEnd(body), false);
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void offer(Send send, boolean gameState) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            Pending last = pending.peekLast();
+            if (gameState && last != null && last.gameState()) {
+                // Keeps the time of the one it replaces, the player is as late as before
+                pending.pollLast();
+                pending.add(new Pending(send, true, last.since()));
+            } else if (pending.size() < CAPACITY) {
+                pending.add(new Pending(send, gameState, now));
+            } else {
+                disconnect();
+                return;
+            }
+            if (now - oldestSince(now) > STALL_LIMIT_NANOS) {
+                disconnect();
+                return;
+            }
+            if (!draining) {
+                draining = true;
+                Thread.ofVirtual().name("outbox-" + connection.getUsername()).start(this::drain);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The message being written counts until the write returns, a player stuck on it is as late as one not reading
+    private long oldestSince(long now) {
+        if (sending != null) {
+            return sending.since();
+        }
+        return pending.isEmpty() ? now : pending.peek().since();
+    }
+
+    private void drain() {
+        while (true) {
+            ArrayList<Pending> batch;
+            lock.lock();
+            try {
+                if (pending.isEmpty() || closed) {
+                    draining = false;
+                    drained.signalAll();
+                    return;
+                }
+                batch = new ArrayList<>(pending);
+                pending.clear();
+                sending = batch.getFirst();
+            } finally {
+                lock.unlock();
+            }
+
+            ServerChannel channel = connection.getChannel();
+            boolean sent = true;
+            boolean stalled = false;
+            try {
+                for (Pending next : batch) {
+                    next.send().send(channel);
+                }
+            } catch (ClosedConnectionException e) {
+                sent = false;
+            }
+            if (sent) {
+                try {
+                    channel.flush(STALL_LIMIT_SECONDS);
+                } catch (ClosedConnectionException e) {
+                    // Still open, the player just didn't read it in time
+                    stalled = channel.isOpen();
+                    sent = false;
+                }
+            }
+
+            lock.lock();
+            try {
+                sending = null;
+                if (stalled && !closed) {
+                    disconnect();
+                } else if (!sent) {
+                    closed = true;
+                    pending.clear();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // For what the table sent last to reach the player before anything else is sent outside the outbox
+    public void awaitDrained(long deadline) {
+        lock.lock();
+        try {
+            while (draining) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    if (!closed) {
+                        disconnect();
+                    }
+                    return;
+                }
+                drained.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static long drainDeadline() {
+        return System.nanoTime() + STALL_LIMIT_NANOS;
+    }
+
+    // Called with the lock held, closing the channel also fails the write the drainer may be stuck in
+    private void disconnect() {
+        closed = true;
+        pending.clear();
+        server.log("Player " + connection.getUsername() + " can't keep up with the table. DISCONNECTING");
+        connection.getChannel().close();
+    }
+}
@@ -0,0 +1,56 @@
+package poker.connection.server.game;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    Runs tables on a fixed number of shards, one per core by default. A shard is a single platform thread with its own
+    timers, and a table stays on the shard it was assigned to for the whole match, so its state is only ever touched by
+    that thread and needs no locks. Tables are assigned round-robin, matches last about as long as each other.
+ */
+public class TableEngine {
+    private final ScheduledExecutorService[] shards;
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final AtomicLong activeTables = new AtomicLong();
+
+    public TableEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public TableEngine(int shardCount) {
+        shards = new ScheduledExecutorService[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("table-shard-" + i).daemon().factory()
+            );
+        }
+    }
+
+    ScheduledExecutorService assignShard() {
+        return shards[Math.floorMod(nextShard.getAndIncrement(), shards.length)];
+    }
+
+    void tableStarted() {
+        activeTables.incrementAndGet();
+    }
+
+    void tableFinished() {
+        activeTables.decrementAndGet();
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public long getActiveTables() {
+        return activeTables.get();
+    }
+
+    public void stop() {
+        for (ScheduledExecutorService shard : shards) {
+            shard.shutdownNow();
+        }
+    }
+}
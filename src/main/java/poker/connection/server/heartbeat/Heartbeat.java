@@ -0,0 +1,63 @@
+package poker.connection.server.heartbeat;
+
+import poker.connection.protocol.Channel;
+import poker.connection.protocol.exceptions.ClosedConnectionException;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Keeps the last seen time of every tracked channel fresh, so whether a player is still there is a read of that time
+    instead of a round-trip. Every PING_INTERVAL one batch of pings goes to the channels that sent nothing since the
+    last one, channels already talking are left alone. Each ping is written on its own virtual thread, so a peer with a
+    full send buffer doesn't hold up the rest of the batch. Channels closed or silent past the limit are dropped when
+    the batch comes up, they are broken for good and their players come back on a new one.
+ */
+public class Heartbeat {
+    private static final long PING_INTERVAL_SECONDS = 5;
+    private static final long PING_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(PING_INTERVAL_SECONDS);
+
+    private final Set<Channel> channels = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("heartbeat").factory());
+    private final ExecutorService pings = Executors.newVirtualThreadPerTaskExecutor();
+
+    public void start() {
+        scheduler.scheduleAtFixedRate(this::pingIdle, PING_INTERVAL_SECONDS, PING_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+        pings.shutdownNow();
+    }
+
+    public void track(Channel channel) {
+        channels.add(channel);
+    }
+
+    public int size() {
+        return channels.size();
+    }
+
+    private void pingIdle() {
+        for (Channel channel : channels) {
+            if (!channel.isAlive()) {
+                channels.remove(channel);
+            } else if (channel.getIdleNanos() >= PING_INTERVAL_NANOS) {
+                pings.execute(() -> ping(channel));
+            }
+        }
+    }
+
+    private void ping(Channel channel) {
+        try {
+            channel.requestConnectionCheck();
+        } catch (ClosedConnectionException e) {
+            channels.remove(channel);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package poker.connection.server.queue;
+
+import poker.connection.protocol.Connection;
+
+import java.util.*;
+
+/*
+    Finds the candidates of a table that are gone. Whether a player is still there is read from the last time its
+    channel heard from it, which the heartbeat keeps fresh, so checking a table never waits on the network. Candidates
+    found alive aren't checked again by the same check, so when the seats of the dead are filled only the newcomers are.
+ */
+public class LivenessCheck {
+    private final Set<Connection> alive = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public List<Connection> findDead(List<Connection> connections) {
+        List<Connection> dead = new ArrayList<>();
+        for (Connection connection : connections) {
+            if (alive.contains(connection)) {
+                continue;
+            }
+            if (connection.isBroken()) {
+                dead.add(connection);
+            } else {
+                alive.add(connection);
+            }
+        }
+        return dead;
+    }
+}
@@ -0,0 +1,92 @@
+package poker.connection.server.queue;
+
+import poker.connection.protocol.Connection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/*
+    Players waiting for a table, in arrival order. Each time a player queues it gets a ticket at the end of the FIFO and
+    the index maps its username to that ticket, tickets no longer in the index are stale and skipped. A player queueing
+    again while it waits gets its connection swapped inside its ticket and keeps its place. Adding only touches the
+    concurrent queue and the bin of the username in the map, so players join without taking any lock while a table is
+    formed. Tables are taken by a single consumer, the queuer.
+ */
+public class Lobby {
+    private static class Ticket {
+        private final String username;
+        private volatile Connection connection;
+
+        Ticket(Connection connection) {
+            this.username = connection.getUsername();
+            this.connection = connection;
+        }
+    }
+
+    private final ConcurrentLinkedQueue<Ticket> arrivals = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    public int size() {
+        return tickets.size();
+    }
+
+    // The connection this one replaced if the player was already waiting, null otherwise
+    public Connection add(Connection connection) {
+        Connection[] replaced = new Connection[1];
+        tickets.compute(connection.getUsername(), (username, ticket) -> {
+            if (ticket == null) {
+                ticket = new Ticket(connection);
+                arrivals.offer(ticket);
+            } else {
+                replaced[0] = ticket.connection;
+                ticket.connection = connection;
+            }
+            return ticket;
+        });
+        return replaced[0];
+    }
+
+    // Up to count of the players who have waited the longest, they stay in the lobby
+    public ArrayList<Connection> peek(int count) {
+        ArrayList<Connection> connections = new ArrayList<>(count);
+        for (Ticket ticket : arrivals) {
+            if (connections.size() == count) {
+                break;
+            }
+            if (tickets.get(ticket.username) == ticket) {
+                connections.add(ticket.connection);
+            }
+        }
+        return connections;
+    }
+
+    // Only if it is still the connection waiting for its player
+    public void remove(Connection connection) {
+        tickets.computeIfPresent(connection.getUsername(), (username, ticket) ->
+                ticket.connection == connection ? null : ticket
+        );
+        pruneStale();
+    }
+
+    // Removes the players of the connections, returning the connection each of them has now
+    public ArrayList<Connection> take(List<Connection> connections) {
+        ArrayList<Connection> taken = new ArrayList<>(connections.size());
+        for (Connection connection : connections) {
+            Ticket ticket = tickets.remove(connection.getUsername());
+            if (ticket != null) {
+                taken.add(ticket.connection);
+            }
+        }
+        pruneStale();
+        return taken;
+    }
+
+    private void pruneStale() {
+        Ticket head;
+        while ((head = arrivals.peek()) != null && tickets.get(head.username) != head) {
+            arrivals.poll();
+        }
+    }
+}
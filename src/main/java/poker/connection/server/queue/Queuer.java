@@ -4,22 +4,25 @@ import poker.Server;
 import poker.connection.protocol.Connection;
 import poker.connection.protocol.exceptions.ChannelException;
 import poker.connection.protocol.exceptions.ClosedConnectionException;
-import poker.connection.server.game.Game;
+import poker.connection.server.game.GameRoom;
 import poker.connection.utils.VirtualThread;
 import poker.game.common.PokerConstants;
 
 import java.util.*;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 public abstract class Queuer extends VirtualThread {
 
     protected final Server server;
-    protected final List<Connection> queue = new ArrayList<>();
     protected final Queue<Connection> playersRequeueing = new LinkedList<>();
-    protected final ReentrantLock queueLock = new ReentrantLock();
     protected final ReentrantLock requeueLock = new ReentrantLock();
     protected final ReentrantLock gameRoomsLock = new ReentrantLock();
-    private final Map<String, Game> gameRooms = new HashMap<>();
+    // Never held while a table is formed, so waking the queuer up doesn't wait for it
+    private final ReentrantLock wakeLock = new ReentrantLock();
+    private final Condition wakeUp = wakeLock.newCondition();
+    private boolean woken = false;
+    private final Map<String, GameRoom> gameRooms = new HashMap<>();
     private final HashSet<Requeuer> requeuers = new HashSet<>();
 
     public Queuer(Server server) {
@@ -29,41 +32,49 @@ public abstract class Queuer extends VirtualThread {
     @Override
     protected void run() {
         while (!this.isInterrupted()) {
-            synchronized (this) {
-                queueLock.lock();
-                if (queue.size() < PokerConstants.NUM_PLAYERS) {
-                    queueLock.unlock();
-                    try {
-                        wait();
-                    } catch (InterruptedException e) {
-                        stop();
-                        return;
-                    }
-                } else {
-                    if (!createGame()) {
-                        try {
-                            queueLock.unlock();
-                            wait();
-                        } catch (InterruptedException e) {
-                            return;
-                        }
-                    } else {
-                        queueLock.unlock();
-                    }
+            if (queueSize() < PokerConstants.NUM_PLAYERS || !createGame()) {
+                try {
+                    awaitWakeUp();
+                } catch (InterruptedException e) {
+                    stop();
+                    return;
                 }
-                requeueLock.lock();
-                while (!this.playersRequeueing.isEmpty()) {
-                    Connection connection = this.playersRequeueing.poll();
-                    Requeuer requeuer = new Requeuer(server, this, connection);
-                    requeuer.start();
-                    requeuers.add(requeuer);
-                }
-                requeueLock.unlock();
             }
+            requeueLock.lock();
+            while (!this.playersRequeueing.isEmpty()) {
+                Connection connection = this.playersRequeueing.poll();
+                Requeuer requeuer = new Requeuer(server, this, connection);
+                requeuer.start();
+                requeuers.add(requeuer);
+            }
+            requeueLock.unlock();
         }
         stop();
     }
 
+    // A wake up while a table was being formed isn't lost, the next wait returns right away
+    protected void wakeUp() {
+        wakeLock.lock();
+        try {
+            woken = true;
+            wakeUp.signal();
+        } finally {
+            wakeLock.unlock();
+        }
+    }
+
+    private void awaitWakeUp() throws InterruptedException {
+        wakeLock.lock();
+        try {
+            while (!woken) {
+                wakeUp.await();
+            }
+            woken = false;
+        } finally {
+            wakeLock.unlock();
+        }
+    }
+
     public void stop() {
         requeueLock.lock();
         for (Requeuer requeuer : requeuers) {
@@ -74,6 +85,9 @@ public abstract class Queuer extends VirtualThread {
 
     public abstract boolean createGame();
 
+    // Players waiting for a table, read without holding up the players joining it
+    protected abstract int queueSize();
+
     public void queuePlayer(Connection connection) {
         gameRoomsLock.lock();
         if (gameRooms.get(connection.getUsername()) != null) {
@@ -89,31 +103,16 @@ public abstract class Queuer extends VirtualThread {
 
     public abstract void addToMainQueue(Connection connection);
 
-    public void updateMainQueue(Connection connection) {
-        int index = -1;
-        queueLock.lock();
-        for (int i = 0; i < queue.size(); i++) {
-            if (queue.get(i).getUsername().equals(connection.getUsername())) {
-                index = i;
-                break;
-            }
-        }
-        if (index == -1) {
-            server.log("Player not found in queue when updating main queue");
-            return;
-        }
-        Connection oldConnection = queue.get(index);
+    protected void endReplacedConnection(Connection oldConnection) {
         try {
             oldConnection.getChannel().requestConnectionEnd("Another connection was found for your account");
-            server.log("Replaced old connection for player " + connection.getUsername() + " in main queue");
+            server.log("Replaced old connection for player " + oldConnection.getUsername() + " in main queue");
         } catch (ClosedConnectionException e) {
-            server.log("Error while disconnecting old connection for player " + connection.getUsername());
+            server.log("Error while disconnecting old connection for player " + oldConnection.getUsername());
         }
-        queue.set(index, connection);
-        queueLock.unlock();
     }
 
-    public synchronized void requeuePlayers(List<Connection> connections) {
+    public void requeuePlayers(List<Connection> connections) {
         List<String> logMessage = new ArrayList<>(List.of("Requeueing players: "));
         for (Connection connection : connections) {
             logMessage.add(connection.getUsername());
@@ -122,10 +121,10 @@ public abstract class Queuer extends VirtualThread {
         requeueLock.lock();
         this.playersRequeueing.addAll(connections);
         requeueLock.unlock();
-        notify();
+        wakeUp();
     }
 
-    public void assignPlayerToRoom(Connection connection, Game game) {
+    public void assignPlayerToRoom(Connection connection, GameRoom game) {
         gameRoomsLock.lock();
         this.gameRooms.put(connection.getUsername(), game);
         gameRoomsLock.unlock();
@@ -138,7 +137,7 @@ public abstract class Queuer extends VirtualThread {
     }
 
     public void startGame(ArrayList<Connection> connections) {
-        Game game = new Game(server, connections);
+        GameRoom game = server.newGame(connections);
 
         List<String> logMessage = new ArrayList<>(List.of("Starting game with players: "));
         for (Connection connection : connections) {
@@ -155,7 +154,7 @@ public abstract class Queuer extends VirtualThread {
         try {
             if (connection.getChannel().requestMatchReconnect()) {
                 gameRoomsLock.lock();
-                Game game = gameRooms.get(connection.getUsername());
+                GameRoom game = gameRooms.get(connection.getUsername());
                 if (game.reconnectPlayer(connection))
                     server.log("Player " + connection.getUsername() + " reconnected to respective match");
                 else
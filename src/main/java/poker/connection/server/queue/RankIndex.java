@@ -0,0 +1,193 @@
+package poker.connection.server.queue;
+
+import poker.connection.protocol.Connection;
+import poker.game.common.PokerConstants;
+
+import java.util.*;
+
+/*
+    Players of the ranked queue sorted by rank. Every group that doesn't include a player who just joined or whose
+    threshold just widened has already been checked, so only those pending players are searched. A group is compatible
+    when the threshold of each member contains the rank of every other, so all of them lie inside the threshold of the
+    pending player, and everyone's threshold covers the group from its lowest rank to its highest. The search tries
+    each lowest rank inside that threshold and finds the narrowest group starting there, so if the pending player is
+    part of any compatible group, a group with the narrowest spread of ranks is found. Thresholds widen on their own
+    as time passes, a heap of the next relaxation of every player tells relax() which ones to search again. Not thread
+    safe.
+ */
+public class RankIndex {
+    private record Entry(Connection connection, Threshold threshold, int rank, long sequence) {
+        Entry withConnection(Connection connection) {
+            return new Entry(connection, threshold, rank, sequence);
+        }
+    }
+
+    private record Relaxation(long at, Entry entry) {
+    }
+
+    private final TreeSet<Entry> byRank = new TreeSet<>(
+            Comparator.comparingInt(Entry::rank).thenComparingLong(Entry::sequence)
+    );
+    private final Map<String, Entry> byUsername = new HashMap<>();
+    private final LinkedHashSet<String> pending = new LinkedHashSet<>();
+    // Entries of players that left or were replaced are dropped when their relaxation comes up
+    private final PriorityQueue<Relaxation> relaxations = new PriorityQueue<>(Comparator.comparingLong(Relaxation::at));
+    private long sequence = 0;
+
+    public int size() {
+        return byUsername.size();
+    }
+
+    public void add(Connection connection, Threshold threshold, long now) {
+        remove(connection);
+        Entry entry = new Entry(connection, threshold, connection.getRank(), sequence++);
+        byRank.add(entry);
+        byUsername.put(connection.getUsername(), entry);
+        pending.add(connection.getUsername());
+        scheduleRelaxation(entry, now);
+    }
+
+    // Keeps the place and threshold of the player when it reconnects while queued, the old connection or null if absent
+    public Connection replace(Connection connection) {
+        Entry entry = byUsername.get(connection.getUsername());
+        if (entry == null) {
+            return null;
+        }
+        Entry replaced = entry.withConnection(connection);
+        byRank.remove(entry);
+        byRank.add(replaced);
+        byUsername.put(connection.getUsername(), replaced);
+        return entry.connection();
+    }
+
+    public void remove(Connection connection) {
+        Entry entry = byUsername.remove(connection.getUsername());
+        if (entry != null) {
+            byRank.remove(entry);
+            pending.remove(connection.getUsername());
+        }
+    }
+
+    // Marks the players whose threshold widened since the last call to be searched again, true if there were any
+    public boolean relax(long now) {
+        boolean relaxed = false;
+        while (!relaxations.isEmpty() && relaxations.peek().at() <= now) {
+            Entry entry = relaxations.poll().entry();
+            Entry current = byUsername.get(entry.connection().getUsername());
+            if (current != null && current.sequence() == entry.sequence()) {
+                pending.add(entry.connection().getUsername());
+                scheduleRelaxation(current, now);
+                relaxed = true;
+            }
+        }
+        return relaxed;
+    }
+
+    // A threshold that already covers every rank isn't searched again for widening
+    private void scheduleRelaxation(Entry entry, long now) {
+        long at = entry.threshold().nextRelaxation(now);
+        if (at != Long.MAX_VALUE) {
+            relaxations.add(new Relaxation(at, entry));
+        }
+    }
+
+    // Searches the player again, for when a table it was matched to couldn't start
+    public void recheck(Connection connection) {
+        if (byUsername.containsKey(connection.getUsername())) {
+            pending.add(connection.getUsername());
+        }
+    }
+
+    // Empty if none of the pending players completes a table, the players found are left in the index
+    public ArrayList<Connection> findMatch(long now) {
+        Iterator<String> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = byUsername.get(iterator.next());
+            iterator.remove();
+            List<Entry> group = findGroup(entry, now);
+            if (group != null) {
+                ArrayList<Connection> connections = new ArrayList<>(group.size());
+                for (Entry member : group) {
+                    connections.add(member.connection());
+                }
+                return connections;
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    // The narrowest group around the player, looking at each rank inside its threshold that the group could start at
+    private List<Entry> findGroup(Entry player, long now) {
+        List<Entry> candidates = new ArrayList<>(byRank.subSet(
+                bound(player.threshold().getLowerBound(now), Long.MIN_VALUE), true,
+                bound(player.threshold().getUpperBound(now), Long.MAX_VALUE), true
+        ));
+        if (candidates.size() < PokerConstants.NUM_PLAYERS) {
+            return null;
+        }
+
+        int position = Collections.binarySearch(candidates, player, byRank.comparator());
+        List<Entry> best = null;
+        int bestSpread = Integer.MAX_VALUE;
+        // Nearest first, once the player alone is too far from the lowest rank no group can be narrower
+        for (int low = position; low >= 0 && player.rank() - candidates.get(low).rank() < bestSpread; low--) {
+            List<Entry> group = groupFrom(candidates, low, position, bestSpread, now);
+            if (group != null) {
+                best = group;
+                bestSpread = spread(group);
+            }
+        }
+        return best;
+    }
+
+    /*
+        The narrowest group whose lowest rank is the one at low. A member must reach down to that rank, and up to the
+        highest rank of the group, so the highest rank is raised one candidate at a time while the members that can't
+        reach it anymore are dropped, until there are enough left. Everyone left then accepts every rank in between.
+     */
+    private static List<Entry> groupFrom(List<Entry> candidates, int low, int position, int maxSpread, long now) {
+        int lowest = candidates.get(low).rank();
+        PriorityQueue<Entry> members = new PriorityQueue<>(
+                Comparator.comparingInt((Entry entry) -> entry.threshold().getUpperBound(now))
+        );
+        for (int high = low; high < candidates.size(); high++) {
+            Entry entry = candidates.get(high);
+            if (entry.rank() - lowest >= maxSpread) {
+                return null;
+            }
+            if (entry.threshold().getLowerBound(now) <= lowest) {
+                members.add(entry);
+            }
+            // The others with the same rank are members or not as well
+            if (high + 1 < candidates.size() && candidates.get(high + 1).rank() == entry.rank()) {
+                continue;
+            }
+            while (!members.isEmpty() && members.peek().threshold().getUpperBound(now) < entry.rank()) {
+                members.poll();
+            }
+            if (high >= position && members.size() >= PokerConstants.NUM_PLAYERS) {
+                return pick(members, candidates.get(position));
+            }
+        }
+        return null;
+    }
+
+    // The player and the members nearest to it, in rank order
+    private static List<Entry> pick(Collection<Entry> members, Entry player) {
+        List<Entry> others = new ArrayList<>(members);
+        others.remove(player);
+        others.sort(Comparator.comparingInt(entry -> Math.abs(entry.rank() - player.rank())));
+        List<Entry> group = new ArrayList<>(others.subList(0, PokerConstants.NUM_PLAYERS - 1));
+        group.add(player);
+        group.sort(Comparator.comparingInt(Entry::rank).thenComparingLong(Entry::sequence));
+        return group;
+    }
+
+    private static Entry bound(int rank, long sequence) {
+        return new Entry(null, null, rank, sequence);
+    }
+
+    private static int spread(List<Entry> window) {
+        return window.getLast().rank() - window.getFirst().rank();
+    }
+}
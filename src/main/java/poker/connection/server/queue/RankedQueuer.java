@@ -3,137 +3,87 @@ package poker.connection.server.queue;
 import poker.Server;
 import poker.connection.protocol.Connection;
 import poker.connection.protocol.exceptions.ChannelException;
-import poker.game.common.PokerConstants;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class RankedQueuer extends Queuer {
 
-    private final Map<String, Threshold> playersThresholds = new HashMap<>();
-    private final Map<String, ScheduledExecutorService> thresholdSchedulers = new HashMap<>();
-    private final ReentrantLock thresholdLock = new ReentrantLock();
-    private final ReentrantLock schedulerLock = new ReentrantLock();
+    private final RankIndex rankIndex = new RankIndex();
+    private final ReentrantLock indexLock = new ReentrantLock();
+    // Thresholds widen on their own, this only wakes the queuer up to search the players whose threshold did
+    private final ScheduledExecutorService relaxer =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("threshold-relaxer").factory());
 
-    private static final int TIME_TO_RELAX = 10;
+    private static final int RELAX_CHECK_SECONDS = 1;
 
     public RankedQueuer(Server server) {
         super(server);
+        relaxer.scheduleAtFixedRate(this::relaxThresholds, RELAX_CHECK_SECONDS, RELAX_CHECK_SECONDS, TimeUnit.SECONDS);
     }
 
-    public synchronized void addToMainQueue(Connection connection) {
+    @Override
+    protected int queueSize() {
+        indexLock.lock();
         try {
-            if (connection.getChannel().requestMatchmaking()) {
-                queueLock.lock();
-                if (queue.stream().noneMatch(c -> c.getUsername().equals(connection.getUsername()))) {
-                    queue.add(connection);
-                    addPlayerThreshold(connection);
-                    schedulePlayerThresholdUpdate(connection);
-                    queueLock.unlock();
-                    notify();
-                } else {
-                    updateMainQueue(connection);
-                    queueLock.unlock();
-                }
-            }
-        } catch (ChannelException ignored) {
+            return rankIndex.size();
+        } finally {
+            indexLock.unlock();
         }
     }
 
-    public void addPlayerThreshold(Connection connection) {
-        Threshold threshold = new Threshold(connection.getRank());
-        thresholdLock.lock();
-        playersThresholds.put(connection.getUsername(), threshold);
-        thresholdLock.unlock();
-    }
-
-    public void removePlayerThreshold(Connection connection) {
-        thresholdLock.lock();
-        playersThresholds.remove(connection.getUsername());
-        thresholdLock.unlock();
-    }
-
-    public synchronized void updatePlayerThreshold(Connection connection) {
-        thresholdLock.lock();
-        Threshold threshold = playersThresholds.get(connection.getUsername());
-        threshold.expand();
-        System.out.println("Current updated thresholds:");
-        for (Connection player : queue) {
-            System.out.println(
-                    player.getUsername() + ": " + player.getRank() + " | " +
-                            playersThresholds.get(player.getUsername()).getLowerBound() + " - " +
-                            playersThresholds.get(player.getUsername()).getUpperBound()
-            );
+    // The handshake happens before taking the index lock, so a slow client doesn't hold up anyone else
+    public void addToMainQueue(Connection connection) {
+        try {
+            if (!connection.getChannel().requestMatchmaking()) {
+                return;
+            }
+        } catch (ChannelException e) {
+            return;
         }
-        thresholdLock.unlock();
-        notify();
-    }
-
-    public void schedulePlayerThresholdUpdate(Connection connection) {
-        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-        ExecutorService updater = Executors.newVirtualThreadPerTaskExecutor();
-        scheduler.scheduleAtFixedRate(() ->
-                        updater.execute(() -> updatePlayerThreshold(connection)),
-                TIME_TO_RELAX,
-                TIME_TO_RELAX,
-                java.util.concurrent.TimeUnit.SECONDS
-        );
-        schedulerLock.lock();
-        thresholdSchedulers.put(connection.getUsername(), scheduler);
-        schedulerLock.unlock();
-    }
 
-    public void cancelPlayerThresholdUpdate(Connection connection) {
-        schedulerLock.lock();
-        ScheduledExecutorService scheduler = thresholdSchedulers.get(connection.getUsername());
-        if (scheduler != null) {
-            scheduler.shutdown();
-            thresholdSchedulers.remove(connection.getUsername());
+        Connection replaced;
+        long now = System.nanoTime();
+        indexLock.lock();
+        try {
+            replaced = rankIndex.replace(connection);
+            if (replaced == null) {
+                rankIndex.add(connection, new Threshold(connection.getRank(), now), now);
+            }
+        } finally {
+            indexLock.unlock();
+        }
+        if (replaced != null) {
+            endReplacedConnection(replaced);
+        } else {
+            wakeUp();
         }
-        schedulerLock.unlock();
     }
 
-    public ArrayList<Connection> findSuitableOpponents(List<Connection> players, ArrayList<Connection> currentRoom) {
+    public void removePlayerThreshold(Connection connection) {
+        indexLock.lock();
+        rankIndex.remove(connection);
+        indexLock.unlock();
+    }
 
-        if (currentRoom.size() == PokerConstants.NUM_PLAYERS) {
-            return currentRoom;
+    private void relaxThresholds() {
+        indexLock.lock();
+        boolean relaxed = rankIndex.relax(System.nanoTime());
+        indexLock.unlock();
+        if (relaxed) {
+            wakeUp();
         }
-
-        for (Connection player : players) {
-            boolean suitable = true;
-            for (Connection roomPlayer : currentRoom) {
-                Threshold playerThreshold = playersThresholds.get(player.getUsername());
-                Threshold roomPlayerThreshold = playersThresholds.get(roomPlayer.getUsername());
-                if (!playerThreshold.contains(roomPlayer.getRank()) || !roomPlayerThreshold.contains(player.getRank())) {
-                    suitable = false;
-                    break;
-                }
-            }
-            if (suitable) {
-                currentRoom.add(player);
-                List<Connection> remainingPlayers = new ArrayList<>(players);
-                remainingPlayers.remove(player);
-                ArrayList<Connection> room = findSuitableOpponents(remainingPlayers, currentRoom);
-                if (!room.isEmpty()) {
-                    return room;
-                }
-                currentRoom.remove(player);
-            }
-        }
-        return new ArrayList<>();
     }
 
     public ArrayList<Connection> tryMatchmaking() {
 
-        thresholdLock.lock();
-        ArrayList<Connection> room = findSuitableOpponents(new ArrayList<>(queue), new ArrayList<>());
-        thresholdLock.unlock();
+        indexLock.lock();
+        ArrayList<Connection> room = rankIndex.findMatch(System.nanoTime());
+        indexLock.unlock();
 
         if (room.isEmpty()) {
             server.log("No suitable opponents found");
@@ -145,44 +95,33 @@ public class RankedQueuer extends Queuer {
     }
 
     public boolean createGame() {
-        ArrayList<Connection> connections = tryMatchmaking();
-        if (!connections.isEmpty()) {
-            boolean allAlive = true;
-            for (Connection connection : connections) {
-                if (connection.isBroken()) {
-                    allAlive = false;
-                    queueLock.lock();
-                    queue.remove(connection);
-                    queueLock.unlock();
-                    removePlayerThreshold(connection);
-                    cancelPlayerThresholdUpdate(connection);
-                }
+        LivenessCheck livenessCheck = new LivenessCheck();
+        ArrayList<Connection> connections;
+        while (!(connections = tryMatchmaking()).isEmpty()) {
+            List<Connection> dead = livenessCheck.findDead(connections);
+            for (Connection connection : dead) {
+                removePlayerThreshold(connection);
             }
-            if (allAlive) {
+            if (dead.isEmpty()) {
                 for (Connection connection : connections) {
-                    queueLock.lock();
-                    queue.remove(connection);
-                    queueLock.unlock();
                     removePlayerThreshold(connection);
-                    cancelPlayerThresholdUpdate(connection);
                 }
                 startGame(connections);
                 return true;
             }
+            // The players still connected may complete another table
+            indexLock.lock();
+            for (Connection connection : connections) {
+                rankIndex.recheck(connection);
+            }
+            indexLock.unlock();
         }
         return false;
     }
 
     @Override
     public void stop() {
-        queueLock.lock();
-        thresholdLock.lock();
-        for (Connection connection : queue) {
-            removePlayerThreshold(connection);
-            cancelPlayerThresholdUpdate(connection);
-        }
-        queueLock.unlock();
-        thresholdLock.unlock();
+        relaxer.shutdownNow();
         super.stop();
     }
 }
@@ -6,54 +6,54 @@ import poker.connection.protocol.exceptions.ChannelException;
 import poker.game.common.PokerConstants;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public class SimpleQueuer extends Queuer {
 
+    private final Lobby lobby = new Lobby();
+
     public SimpleQueuer(Server server) {
         super(server);
     }
 
+    @Override
+    protected int queueSize() {
+        return lobby.size();
+    }
+
     public boolean createGame() {
-        queueLock.lock();
-        ArrayList<Connection> connections = new ArrayList<>(
-                queue.subList(0, PokerConstants.NUM_PLAYERS)
-        );
-        boolean allAlive = true;
-        for (Connection connection : connections) {
-            if (connection.isBroken()) {
-                allAlive = false;
-                queue.remove(connection);
-                break;
+        LivenessCheck livenessCheck = new LivenessCheck();
+        ArrayList<Connection> connections;
+        while ((connections = lobby.peek(PokerConstants.NUM_PLAYERS)).size() == PokerConstants.NUM_PLAYERS) {
+            List<Connection> dead = livenessCheck.findDead(connections);
+            if (dead.isEmpty()) {
+                startGame(lobby.take(connections));
+                return true;
             }
-        }
-
-        if (allAlive) {
-            for (Connection connection : connections) {
-                queue.remove(connection);
+            // The players still connected keep their place, the next ones in the lobby take the seats of the dead
+            for (Connection connection : dead) {
+                lobby.remove(connection);
             }
-            startGame(connections);
         }
-        queueLock.unlock();
-        return allAlive;
+        return false;
     }
 
+    // The handshake happens before the player is in the lobby, so a slow client doesn't hold up anyone else
     @Override
-    public synchronized void addToMainQueue(Connection connection) {
-
+    public void addToMainQueue(Connection connection) {
         try {
-            queueLock.lock();
-            if (connection.getChannel().requestMatchmaking()) {
-                if (queue.stream().noneMatch(c -> c.getUsername().equals(connection.getUsername()))) {
-                    queue.add(connection);
-                    queueLock.unlock();
-                    notify();
-                } else {
-                    updateMainQueue(connection);
-                    queueLock.unlock();
-                }
+            if (!connection.getChannel().requestMatchmaking()) {
+                return;
             }
         } catch (ChannelException e) {
-            queueLock.unlock();
+            return;
+        }
+
+        Connection replaced = lobby.add(connection);
+        if (replaced != null) {
+            endReplacedConnection(replaced);
+        } else {
+            wakeUp();
         }
     }
 }
@@ -1,39 +1,49 @@
 package poker.connection.server.queue;
 
-public class    Threshold {
-    private int lowerBound;
-    private int upperBound;
+import java.util.concurrent.TimeUnit;
 
-    private int range = 50;
+// Ranks a queued player accepts, widened every RELAX_INTERVAL since it queued by twice the previous step: 50, 150, 350...
+public class Threshold {
+    public static final long RELAX_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final int INITIAL_RANGE = 50;
+    // Past this the range would overflow, and covers every rank long before
+    private static final int MAX_RELAXATIONS = 20;
 
-    public Threshold(int midpoint) {
-        this.lowerBound = midpoint - range;
-        this.upperBound = midpoint + range;
+    private final int midpoint;
+    private final long since;
+
+    public Threshold(int midpoint, long since) {
+        this.midpoint = midpoint;
+        this.since = since;
     }
 
-    public int getLowerBound() {
-        return lowerBound;
+    public int relaxations(long now) {
+        return (int) Math.min(MAX_RELAXATIONS, Math.max(0, now - since) / RELAX_INTERVAL_NANOS);
     }
 
-    public int getUpperBound() {
-        return upperBound;
+    // Long.MAX_VALUE once the threshold has stopped widening
+    public long nextRelaxation(long now) {
+        int relaxations = relaxations(now);
+        if (relaxations == MAX_RELAXATIONS) {
+            return Long.MAX_VALUE;
+        }
+        return since + (relaxations + 1) * RELAX_INTERVAL_NANOS;
     }
 
-    private boolean isWithinThreshold(int value) {
-        return value >= lowerBound && value <= upperBound;
+    public int getLowerBound(long now) {
+        return midpoint - range(now);
     }
 
-    public boolean overlaps(Threshold other) {
-        return this.isWithinThreshold(other.getLowerBound()) || this.isWithinThreshold(other.getUpperBound());
+    public int getUpperBound(long now) {
+        return midpoint + range(now);
     }
 
-    public boolean contains(int value) {
-        return value >= lowerBound && value <= upperBound;
+    public boolean contains(int value, long now) {
+        int range = range(now);
+        return value >= midpoint - range && value <= midpoint + range;
     }
 
-    public void expand() {
-        range *= 2;
-        lowerBound -= range;
-        upperBound += range;
+    private int range(long now) {
+        return INITIAL_RANGE * ((1 << (relaxations(now) + 1)) - 1);
     }
 }
@@ -0,0 +1,120 @@
+package poker.connection.utils;
+
+import javax.net.ssl.*;
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    One SSLContext per side for the whole process, built the first time it is needed. Sessions live in the context, so
+    sharing it is what lets a reconnecting client resume its last session (a session ticket in TLS 1.3) instead of
+    paying for a full handshake. The cache size and timeout come from the poker.tls.sessionCacheSize and
+    poker.tls.sessionTimeout (seconds) system properties. Handshakes are counted as full or resumed, a resumed session
+    was created before its connection was opened.
+ */
+public final class TlsContexts {
+    private static final int SESSION_CACHE_SIZE = Integer.getInteger("poker.tls.sessionCacheSize", 20000);
+    private static final int SESSION_TIMEOUT_SECONDS = Integer.getInteger("poker.tls.sessionTimeout", 3600);
+
+    public static final HandshakeCounter SERVER_HANDSHAKES = new HandshakeCounter();
+    public static final HandshakeCounter CLIENT_HANDSHAKES = new HandshakeCounter();
+
+    static {
+        // On by default in recent JDKs, read once when the TLS provider loads
+        System.setProperty("jdk.tls.server.enableSessionTicketExtension",
+                System.getProperty("jdk.tls.server.enableSessionTicketExtension", "true"));
+        System.setProperty("jdk.tls.client.enableSessionTicketExtension",
+                System.getProperty("jdk.tls.client.enableSessionTicketExtension", "true"));
+    }
+
+    private TlsContexts() {
+    }
+
+    private static class ServerHolder {
+        static final SSLContext CONTEXT = createServerContext();
+    }
+
+    private static class ClientHolder {
+        static final SSLContext CONTEXT = createClientContext();
+    }
+
+    public static SSLContext server() {
+        return ServerHolder.CONTEXT;
+    }
+
+    public static SSLContext client() {
+        return ClientHolder.CONTEXT;
+    }
+
+    private static SSLContext createServerContext() {
+        try {
+            InputStream keyStoreInputStream = TlsContexts.class.getClassLoader().getResourceAsStream("server_keystore.p12");
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(keyStoreInputStream, "server_keystore".toCharArray());
+
+            KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagerFactory.init(keyStore, "server_keystore".toCharArray());
+
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+            configureSessions(sslContext.getServerSessionContext());
+            return sslContext;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static SSLContext createClientContext() {
+        try {
+            InputStream trustStoreInputStream = TlsContexts.class.getClassLoader().getResourceAsStream("client_truststore.jks");
+            KeyStore trustStore = KeyStore.getInstance("JKS");
+            trustStore.load(trustStoreInputStream, "client_truststore".toCharArray());
+
+            TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            trustManagerFactory.init(trustStore);
+
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, trustManagerFactory.getTrustManagers(), null);
+            configureSessions(sslContext.getClientSessionContext());
+            return sslContext;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void configureSessions(SSLSessionContext sessionContext) {
+        sessionContext.setSessionCacheSize(SESSION_CACHE_SIZE);
+        sessionContext.setSessionTimeout(SESSION_TIMEOUT_SECONDS);
+    }
+
+    // Counts the handshake of the socket whenever it happens, openedAt as System.currentTimeMillis()
+    public static void countHandshake(SSLSocket socket, HandshakeCounter counter, long openedAt) {
+        socket.addHandshakeCompletedListener(event -> counter.record(event.getSession(), openedAt));
+    }
+
+    public static class HandshakeCounter {
+        private final AtomicLong full = new AtomicLong();
+        private final AtomicLong resumed = new AtomicLong();
+
+        public void record(SSLSession session, long openedAt) {
+            if (session.getCreationTime() < openedAt) {
+                resumed.incrementAndGet();
+            } else {
+                full.incrementAndGet();
+            }
+        }
+
+        public long getFull() {
+            return full.get();
+        }
+
+        public long getResumed() {
+            return resumed.get();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d full, %d resumed", getFull(), getResumed());
+        }
+    }
+}
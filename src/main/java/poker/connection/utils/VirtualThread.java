@@ -4,7 +4,8 @@ public abstract class VirtualThread {
 
     Thread thread;
     public void start() {
-        thread = Thread.startVirtualThread(this::run);
+        thread = Thread.ofVirtual().unstarted(this::run);
+        thread.start();
     }
 
     protected abstract void run();
@@ -1,6 +1,7 @@
 package poker.game.client;
 
 import poker.game.common.Card;
+import poker.game.common.Equity;
 import poker.game.common.GamePhase;
 import poker.game.common.GameState;
 import poker.game.common.PokerPlayer;
@@ -108,6 +109,15 @@ public class PokerClientGUI {
         return sb.toString();
     }
 
+    private String showEquity(GameState gameState, int player) {
+        ArrayList<Equity> equities = gameState.getEquities();
+        if (equities == null || player >= equities.size() || equities.get(player) == null) {
+            return "";
+        }
+        Equity equity = equities.get(player);
+        return String.format(" (all-in equity: %.1f%% win, %.1f%% tie)", equity.win() * 100, equity.tie() * 100);
+    }
+
     private void displayHandOver(GameState gameState) {
         int pot = gameState.getPlayers().stream().mapToInt(PokerPlayer::getBet).sum();
         for (int i = 0; i < gameState.getPlayers().size(); i++) {
@@ -118,7 +128,7 @@ public class PokerClientGUI {
         for (int i = 0; i < gameState.getPlayers().size(); i++) {
             PokerPlayer player = gameState.getPlayers().get(i);
             if (player.getState() != PokerPlayer.PLAYER_STATE.OUT_OF_MONEY && player.getState() != PokerPlayer.PLAYER_STATE.FOLDED)
-                System.out.println(player.getUsername() + "'s hand: " + showPlayerHand(player));
+                System.out.println(player.getUsername() + "'s hand: " + showPlayerHand(player) + showEquity(gameState, i));
         }
         System.out.println();
         System.out.println(showCommunityCards(gameState));
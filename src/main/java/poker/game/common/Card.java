@@ -9,12 +9,40 @@ public class Card {
         TWO, THREE, FOUR, FIVE, SIX, SEVEN, EIGHT, NINE, TEN, JACK, QUEEN, KING, ACE
     }
 
+    public static final int DECK_SIZE = 52;
+
+    // The 52 cards are shared instances, indexed by suit * 13 + rank
+    private static final Card[] CARDS = new Card[DECK_SIZE];
+
+    static {
+        for (Suit suit : Suit.values()) {
+            for (Rank rank : Rank.values()) {
+                Card card = new Card(suit, rank);
+                CARDS[card.index] = card;
+            }
+        }
+    }
+
     private final Suit suit;
     private final Rank rank;
+    private final int index;
 
-    public Card(Suit suit, Rank rank) {
+    private Card(Suit suit, Rank rank) {
         this.suit = suit;
         this.rank = rank;
+        this.index = suit.ordinal() * Rank.values().length + rank.ordinal();
+    }
+
+    public static Card of(Suit suit, Rank rank) {
+        return CARDS[suit.ordinal() * Rank.values().length + rank.ordinal()];
+    }
+
+    public static Card of(int index) {
+        return CARDS[index];
+    }
+
+    public int index() {
+        return index;
     }
 
     public Suit getSuit() {
@@ -40,4 +68,21 @@ public class Card {
     public int compareTo(Card other) {
         return rank.compareTo(other.rank);
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof Card)) {
+            return false;
+        }
+        Card card = (Card) obj;
+        return this.suit == card.suit && this.rank == card.rank;
+    }
+
+    @Override
+    public int hashCode() {
+        return index;
+    }
 }
@@ -0,0 +1,43 @@
+package poker.game.common;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+class CardAdapter extends TypeAdapter<Card> {
+
+    @Override
+    public void write(JsonWriter out, Card card) throws IOException {
+        if (card == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("suit").value(card.getSuit().name());
+        out.name("rank").value(card.getRank().name());
+        out.endObject();
+    }
+
+    @Override
+    public Card read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Card.Suit suit = null;
+        Card.Rank rank = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "suit" -> suit = Card.Suit.valueOf(in.nextString());
+                case "rank" -> rank = Card.Rank.valueOf(in.nextString());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return Card.of(suit, rank);
+    }
+}
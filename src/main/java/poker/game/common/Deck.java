@@ -1,44 +1,76 @@
 package poker.game.common;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 public class Deck {
-    private final int DECK_SIZE = 52;
-    private final ArrayList<Card> deck = new ArrayList<>(DECK_SIZE);
+    // Card indexes, the ones before the cursor have already been dealt
+    private final int[] deck = new int[Card.DECK_SIZE];
+    private int cursor;
 
     public Deck() {
         reset();
     }
 
     public void reset() {
-        deck.clear();
-        for (Card.Suit suit : Card.Suit.values()) {
-            for (Card.Rank rank : Card.Rank.values()) {
-                deck.add(new Card(suit, rank));
-            }
+        for (int i = 0; i < deck.length; i++) {
+            deck[i] = i;
         }
+        cursor = 0;
     }
 
     public void shuffle() {
-        Collections.shuffle(deck);
+        shuffle(ThreadLocalRandom.current());
+    }
+
+    // Fisher-Yates over the cards that haven't been dealt yet
+    public void shuffle(RandomGenerator random) {
+        for (int i = deck.length - 1; i > cursor; i--) {
+            int j = cursor + random.nextInt(i - cursor + 1);
+            int card = deck[i];
+            deck[i] = deck[j];
+            deck[j] = card;
+        }
+    }
+
+    public int remaining() {
+        return deck.length - cursor;
+    }
+
+    public int dealIndex() {
+        if (cursor == deck.length) {
+            throw new NoSuchElementException("No cards left in the deck");
+        }
+        return deck[cursor++];
     }
 
     public Card deal() {
-        return deck.removeFirst();
+        return Card.of(dealIndex());
     }
 
-    public ArrayList<Card> dealCards(int numCards) {
-        ArrayList<Card> cards = new ArrayList<>(numCards);
+    public void dealCards(Card[] cards, int offset, int numCards) {
+        for (int i = 0; i < numCards; i++) {
+            cards[offset + i] = deal();
+        }
+    }
+
+    public void dealCards(List<Card> cards, int numCards) {
         for (int i = 0; i < numCards; i++) {
             cards.add(deal());
         }
+    }
+
+    public ArrayList<Card> dealCards(int numCards) {
+        ArrayList<Card> cards = new ArrayList<>(numCards);
+        dealCards(cards, numCards);
         return cards;
     }
 
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (Card card : deck) {
-            sb.append(card);
+        for (int i = cursor; i < deck.length; i++) {
+            sb.append(Card.of(deck[i]));
             sb.append("\n");
         }
         return sb.toString();
@@ -0,0 +1,5 @@
+package poker.game.common;
+
+// Probability of a player winning the pot outright and of splitting it, over the cards still to come
+public record Equity(double win, double tie) {
+}
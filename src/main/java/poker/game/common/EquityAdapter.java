@@ -0,0 +1,43 @@
+package poker.game.common;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+class EquityAdapter extends TypeAdapter<Equity> {
+
+    @Override
+    public void write(JsonWriter out, Equity equity) throws IOException {
+        if (equity == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("win").value(equity.win());
+        out.name("tie").value(equity.tie());
+        out.endObject();
+    }
+
+    @Override
+    public Equity read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        double win = 0;
+        double tie = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "win" -> win = in.nextDouble();
+                case "tie" -> tie = in.nextDouble();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Equity(win, tie);
+    }
+}
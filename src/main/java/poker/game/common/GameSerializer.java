@@ -0,0 +1,70 @@
+package poker.game.common;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+public final class GameSerializer {
+    private static final CardAdapter CARD_ADAPTER = new CardAdapter();
+    private static final PokerPlayerAdapter PLAYER_ADAPTER = new PokerPlayerAdapter(CARD_ADAPTER);
+    private static final EquityAdapter EQUITY_ADAPTER = new EquityAdapter();
+    private static final GameStateAdapter GAME_STATE_ADAPTER = new GameStateAdapter(CARD_ADAPTER, PLAYER_ADAPTER, EQUITY_ADAPTER);
+    private static final GameStateDeltaAdapter DELTA_ADAPTER = new GameStateDeltaAdapter(CARD_ADAPTER, PLAYER_ADAPTER, EQUITY_ADAPTER);
+
+    public static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(Card.class, CARD_ADAPTER)
+            .registerTypeAdapter(PokerPlayer.class, PLAYER_ADAPTER)
+            .registerTypeAdapter(Equity.class, EQUITY_ADAPTER)
+            .registerTypeAdapter(GameState.class, GAME_STATE_ADAPTER)
+            .registerTypeAdapter(GameStateDelta.class, DELTA_ADAPTER)
+            .create();
+
+    private GameSerializer() {
+        throw new AssertionError("This class should not be instantiated.");
+    }
+
+    public static void write(GameState gameState, Writer writer) throws IOException {
+        JsonWriter jsonWriter = new JsonWriter(writer);
+        GAME_STATE_ADAPTER.write(jsonWriter, gameState);
+        jsonWriter.flush();
+    }
+
+    public static void write(GameStateDelta delta, Writer writer) throws IOException {
+        JsonWriter jsonWriter = new JsonWriter(writer);
+        DELTA_ADAPTER.write(jsonWriter, delta);
+        jsonWriter.flush();
+    }
+
+    public static String toJson(GameState gameState) {
+        StringWriter writer = new StringWriter(1024);
+        try {
+            write(gameState, writer);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+        return writer.toString();
+    }
+
+    public static GameState fromJson(String json) {
+        try {
+            return GAME_STATE_ADAPTER.read(new JsonReader(new StringReader(json)));
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+
+    public static GameStateDelta deltaFromJson(String json) {
+        try {
+            return DELTA_ADAPTER.read(new JsonReader(new StringReader(json)));
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+}
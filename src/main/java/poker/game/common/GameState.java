@@ -7,6 +7,7 @@ public class GameState {
     ArrayList<PokerPlayer> winners;
     ArrayList<Card> communityCards;
     ArrayList<HandRank> handRanks;
+    ArrayList<Equity> equities;
     GamePhase phase;
     boolean isGameOver;
     boolean isHandOver;
@@ -18,11 +19,12 @@ public class GameState {
     int bigBlindBet;
     int handsPlayed;
 
-    public GameState(ArrayList<PokerPlayer> players, ArrayList<PokerPlayer> winners, ArrayList<Card> communityCards, ArrayList<HandRank> handRanks, GamePhase phase, boolean isGameOver, boolean isHandOver, int player, int currPlayer, int smallBlind, int bigBlind, int smallBlindBet, int bigBlindBet, int handsPlayed) {
+    public GameState(ArrayList<PokerPlayer> players, ArrayList<PokerPlayer> winners, ArrayList<Card> communityCards, ArrayList<HandRank> handRanks, ArrayList<Equity> equities, GamePhase phase, boolean isGameOver, boolean isHandOver, int player, int currPlayer, int smallBlind, int bigBlind, int smallBlindBet, int bigBlindBet, int handsPlayed) {
         this.players = players;
         this.winners = winners;
         this.communityCards = communityCards;
         this.handRanks = handRanks;
+        this.equities = equities;
         this.phase = phase;
         this.isGameOver = isGameOver;
         this.isHandOver = isHandOver;
@@ -35,6 +37,25 @@ public class GameState {
         this.handsPlayed = handsPlayed;
     }
 
+    public GameState copy() {
+        return new GameState(copyPlayers(players), copyPlayers(winners), copyList(communityCards), copyList(handRanks), copyList(equities), phase, isGameOver, isHandOver, player, currPlayer, smallBlind, bigBlind, smallBlindBet, bigBlindBet, handsPlayed);
+    }
+
+    private static ArrayList<PokerPlayer> copyPlayers(ArrayList<PokerPlayer> players) {
+        if (players == null) {
+            return null;
+        }
+        ArrayList<PokerPlayer> copy = new ArrayList<>(players.size());
+        for (PokerPlayer player : players) {
+            copy.add(player.copy());
+        }
+        return copy;
+    }
+
+    private static <T> ArrayList<T> copyList(ArrayList<T> list) {
+        return list == null ? null : new ArrayList<>(list);
+    }
+
     public ArrayList<PokerPlayer> getPlayers() {
         return this.players;
     }
@@ -51,6 +72,11 @@ public class GameState {
         return this.handRanks;
     }
 
+    // Per seat (null if not in the hand) for all-in showdowns decided before the river, empty otherwise
+    public ArrayList<Equity> getEquities() {
+        return this.equities;
+    }
+
     public GamePhase getPhase() {
         return this.phase;
     }
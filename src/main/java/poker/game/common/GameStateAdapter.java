@@ -0,0 +1,161 @@
+package poker.game.common;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+class GameStateAdapter extends TypeAdapter<GameState> {
+    private final CardAdapter cardAdapter;
+    private final PokerPlayerAdapter playerAdapter;
+    private final EquityAdapter equityAdapter;
+
+    GameStateAdapter(CardAdapter cardAdapter, PokerPlayerAdapter playerAdapter, EquityAdapter equityAdapter) {
+        this.cardAdapter = cardAdapter;
+        this.playerAdapter = playerAdapter;
+        this.equityAdapter = equityAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, GameState state) throws IOException {
+        if (state == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        writePlayers(out, "players", state.players);
+        writePlayers(out, "winners", state.winners);
+        if (state.communityCards != null) {
+            out.name("communityCards");
+            out.beginArray();
+            for (Card card : state.communityCards) {
+                cardAdapter.write(out, card);
+            }
+            out.endArray();
+        }
+        if (state.handRanks != null) {
+            out.name("handRanks");
+            out.beginArray();
+            for (HandRank handRank : state.handRanks) {
+                out.value(handRank.name());
+            }
+            out.endArray();
+        }
+        if (state.equities != null) {
+            out.name("equities");
+            out.beginArray();
+            for (Equity equity : state.equities) {
+                equityAdapter.write(out, equity);
+            }
+            out.endArray();
+        }
+        if (state.phase != null) {
+            out.name("phase").value(state.phase.name());
+        }
+        out.name("isGameOver").value(state.isGameOver);
+        out.name("isHandOver").value(state.isHandOver);
+        out.name("player").value(state.player);
+        out.name("currPlayer").value(state.currPlayer);
+        out.name("smallBlind").value(state.smallBlind);
+        out.name("bigBlind").value(state.bigBlind);
+        out.name("smallBlindBet").value(state.smallBlindBet);
+        out.name("bigBlindBet").value(state.bigBlindBet);
+        out.name("handsPlayed").value(state.handsPlayed);
+        out.endObject();
+    }
+
+    private void writePlayers(JsonWriter out, String name, List<PokerPlayer> players) throws IOException {
+        if (players == null) {
+            return;
+        }
+        out.name(name);
+        out.beginArray();
+        for (PokerPlayer player : players) {
+            playerAdapter.write(out, player);
+        }
+        out.endArray();
+    }
+
+    @Override
+    public GameState read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ArrayList<PokerPlayer> players = null;
+        ArrayList<PokerPlayer> winners = null;
+        ArrayList<Card> communityCards = null;
+        ArrayList<HandRank> handRanks = null;
+        ArrayList<Equity> equities = null;
+        GamePhase phase = null;
+        boolean isGameOver = false;
+        boolean isHandOver = false;
+        int player = 0;
+        int currPlayer = 0;
+        int smallBlind = 0;
+        int bigBlind = 0;
+        int smallBlindBet = 0;
+        int bigBlindBet = 0;
+        int handsPlayed = 0;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "players" -> players = readPlayers(in);
+                case "winners" -> winners = readPlayers(in);
+                case "communityCards" -> {
+                    communityCards = new ArrayList<>(PokerConstants.NUM_COMMUNITY_CARDS);
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        communityCards.add(cardAdapter.read(in));
+                    }
+                    in.endArray();
+                }
+                case "handRanks" -> {
+                    handRanks = new ArrayList<>(PokerConstants.NUM_PLAYERS);
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        handRanks.add(HandRank.valueOf(in.nextString()));
+                    }
+                    in.endArray();
+                }
+                case "equities" -> {
+                    equities = new ArrayList<>(PokerConstants.NUM_PLAYERS);
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        equities.add(equityAdapter.read(in));
+                    }
+                    in.endArray();
+                }
+                case "phase" -> phase = GamePhase.valueOf(in.nextString());
+                case "isGameOver" -> isGameOver = in.nextBoolean();
+                case "isHandOver" -> isHandOver = in.nextBoolean();
+                case "player" -> player = in.nextInt();
+                case "currPlayer" -> currPlayer = in.nextInt();
+                case "smallBlind" -> smallBlind = in.nextInt();
+                case "bigBlind" -> bigBlind = in.nextInt();
+                case "smallBlindBet" -> smallBlindBet = in.nextInt();
+                case "bigBlindBet" -> bigBlindBet = in.nextInt();
+                case "handsPlayed" -> handsPlayed = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return new GameState(players, winners, communityCards, handRanks, equities, phase, isGameOver, isHandOver, player, currPlayer, smallBlind, bigBlind, smallBlindBet, bigBlindBet, handsPlayed);
+    }
+
+    private ArrayList<PokerPlayer> readPlayers(JsonReader in) throws IOException {
+        ArrayList<PokerPlayer> players = new ArrayList<>(PokerConstants.NUM_PLAYERS);
+        in.beginArray();
+        while (in.hasNext()) {
+            players.add(playerAdapter.read(in));
+        }
+        in.endArray();
+        return players;
+    }
+}
@@ -0,0 +1,172 @@
+package poker.game.common;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/*
+    Changes between two consecutive game states sent to the same player. Unchanged fields are left null, players are
+    patched field by field by seat and community cards are either appended (revealed) or replaced as a whole (new hand).
+ */
+public class GameStateDelta {
+    int version;
+    final Map<Integer, PlayerDelta> players = new TreeMap<>();
+    ArrayList<Card> communityCards;
+    ArrayList<Card> revealedCards;
+    ArrayList<PokerPlayer> winners;
+    ArrayList<HandRank> handRanks;
+    ArrayList<Equity> equities;
+    GamePhase phase;
+    Boolean isGameOver;
+    Boolean isHandOver;
+    Integer currPlayer;
+    Integer smallBlind;
+    Integer bigBlind;
+    Integer smallBlindBet;
+    Integer bigBlindBet;
+    Integer handsPlayed;
+
+    static class PlayerDelta {
+        Integer money;
+        Integer bet;
+        Integer turnBet;
+        ArrayList<Card> hand;
+        PokerPlayer.PLAYER_STATE state;
+
+        static PlayerDelta diff(PokerPlayer base, PokerPlayer next) {
+            PlayerDelta delta = new PlayerDelta();
+            delta.money = changed(base.getMoney(), next.getMoney());
+            delta.bet = changed(base.getBet(), next.getBet());
+            delta.turnBet = changed(base.getTurnBet(), next.getTurnBet());
+            delta.hand = changed(base.getHand(), next.getHand());
+            delta.state = changed(base.getState(), next.getState());
+            return delta;
+        }
+
+        PokerPlayer applyTo(PokerPlayer base) {
+            PokerPlayer player = new PokerPlayer(
+                    base.getUsername(),
+                    money != null ? money : base.getMoney(),
+                    state != null ? state : base.getState(),
+                    bet != null ? bet : base.getBet(),
+                    turnBet != null ? turnBet : base.getTurnBet()
+            );
+            player.setHand(hand != null ? hand : base.getHand());
+            return player;
+        }
+    }
+
+    GameStateDelta(int version) {
+        this.version = version;
+    }
+
+    // Deltas are always taken against the previous version sent on the same channel
+    public int getBaseVersion() {
+        return version - 1;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    // Returns null when the states can't be diffed (no base, different player or seat count) and a snapshot is needed
+    public static GameStateDelta diff(GameState base, GameState next, int version) {
+        if (base == null || base.player != next.player || base.players == null || next.players == null
+                || base.players.size() != next.players.size()) {
+            return null;
+        }
+        GameStateDelta delta = new GameStateDelta(version);
+
+        for (int i = 0; i < next.players.size(); i++) {
+            PokerPlayer before = base.players.get(i);
+            PokerPlayer after = next.players.get(i);
+            if (!before.getUsername().equals(after.getUsername())) {
+                return null;
+            }
+            if (!after.sameAs(before)) {
+                delta.players.put(i, PlayerDelta.diff(before, after));
+            }
+        }
+
+        if (!Objects.equals(base.communityCards, next.communityCards)) {
+            if (base.communityCards != null && next.communityCards != null
+                    && next.communityCards.size() > base.communityCards.size()
+                    && next.communityCards.subList(0, base.communityCards.size()).equals(base.communityCards)) {
+                delta.revealedCards = new ArrayList<>(next.communityCards.subList(base.communityCards.size(), next.communityCards.size()));
+            } else {
+                delta.communityCards = next.communityCards;
+            }
+        }
+        if (!samePlayers(base.winners, next.winners)) {
+            delta.winners = next.winners;
+        }
+        if (!Objects.equals(base.handRanks, next.handRanks)) {
+            delta.handRanks = next.handRanks;
+        }
+        if (!Objects.equals(base.equities, next.equities)) {
+            delta.equities = next.equities;
+        }
+
+        delta.phase = changed(base.phase, next.phase);
+        delta.isGameOver = changed(base.isGameOver, next.isGameOver);
+        delta.isHandOver = changed(base.isHandOver, next.isHandOver);
+        delta.currPlayer = changed(base.currPlayer, next.currPlayer);
+        delta.smallBlind = changed(base.smallBlind, next.smallBlind);
+        delta.bigBlind = changed(base.bigBlind, next.bigBlind);
+        delta.smallBlindBet = changed(base.smallBlindBet, next.smallBlindBet);
+        delta.bigBlindBet = changed(base.bigBlindBet, next.bigBlindBet);
+        delta.handsPlayed = changed(base.handsPlayed, next.handsPlayed);
+        return delta;
+    }
+
+    public GameState applyTo(GameState base) {
+        ArrayList<PokerPlayer> players = new ArrayList<>(base.players);
+        for (Map.Entry<Integer, PlayerDelta> entry : this.players.entrySet()) {
+            players.set(entry.getKey(), entry.getValue().applyTo(players.get(entry.getKey())));
+        }
+
+        ArrayList<Card> communityCards = this.communityCards != null ? this.communityCards : base.communityCards;
+        if (revealedCards != null) {
+            communityCards = new ArrayList<>(communityCards);
+            communityCards.addAll(revealedCards);
+        }
+
+        return new GameState(
+                players,
+                winners != null ? winners : base.winners,
+                communityCards,
+                handRanks != null ? handRanks : base.handRanks,
+                equities != null ? equities : base.equities,
+                phase != null ? phase : base.phase,
+                isGameOver != null ? isGameOver : base.isGameOver,
+                isHandOver != null ? isHandOver : base.isHandOver,
+                base.player,
+                currPlayer != null ? currPlayer : base.currPlayer,
+                smallBlind != null ? smallBlind : base.smallBlind,
+                bigBlind != null ? bigBlind : base.bigBlind,
+                smallBlindBet != null ? smallBlindBet : base.smallBlindBet,
+                bigBlindBet != null ? bigBlindBet : base.bigBlindBet,
+                handsPlayed != null ? handsPlayed : base.handsPlayed
+        );
+    }
+
+    private static boolean samePlayers(ArrayList<PokerPlayer> a, ArrayList<PokerPlayer> b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).sameAs(b.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T> T changed(T before, T after) {
+        return Objects.equals(before, after) ? null : after;
+    }
+}
@@ -0,0 +1,211 @@
+package poker.game.common;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+class GameStateDeltaAdapter extends TypeAdapter<GameStateDelta> {
+    private final CardAdapter cardAdapter;
+    private final PokerPlayerAdapter playerAdapter;
+    private final EquityAdapter equityAdapter;
+
+    GameStateDeltaAdapter(CardAdapter cardAdapter, PokerPlayerAdapter playerAdapter, EquityAdapter equityAdapter) {
+        this.cardAdapter = cardAdapter;
+        this.playerAdapter = playerAdapter;
+        this.equityAdapter = equityAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, GameStateDelta delta) throws IOException {
+        if (delta == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("version").value(delta.version);
+        if (!delta.players.isEmpty()) {
+            out.name("players");
+            out.beginObject();
+            for (Map.Entry<Integer, GameStateDelta.PlayerDelta> entry : delta.players.entrySet()) {
+                out.name(entry.getKey().toString());
+                writePlayer(out, entry.getValue());
+            }
+            out.endObject();
+        }
+        writeCards(out, "communityCards", delta.communityCards);
+        writeCards(out, "revealedCards", delta.revealedCards);
+        if (delta.winners != null) {
+            out.name("winners");
+            out.beginArray();
+            for (PokerPlayer player : delta.winners) {
+                playerAdapter.write(out, player);
+            }
+            out.endArray();
+        }
+        if (delta.handRanks != null) {
+            out.name("handRanks");
+            out.beginArray();
+            for (HandRank handRank : delta.handRanks) {
+                out.value(handRank.name());
+            }
+            out.endArray();
+        }
+        if (delta.equities != null) {
+            out.name("equities");
+            out.beginArray();
+            for (Equity equity : delta.equities) {
+                equityAdapter.write(out, equity);
+            }
+            out.endArray();
+        }
+        if (delta.phase != null) {
+            out.name("phase").value(delta.phase.name());
+        }
+        writeBoolean(out, "isGameOver", delta.isGameOver);
+        writeBoolean(out, "isHandOver", delta.isHandOver);
+        writeInt(out, "currPlayer", delta.currPlayer);
+        writeInt(out, "smallBlind", delta.smallBlind);
+        writeInt(out, "bigBlind", delta.bigBlind);
+        writeInt(out, "smallBlindBet", delta.smallBlindBet);
+        writeInt(out, "bigBlindBet", delta.bigBlindBet);
+        writeInt(out, "handsPlayed", delta.handsPlayed);
+        out.endObject();
+    }
+
+    private void writePlayer(JsonWriter out, GameStateDelta.PlayerDelta player) throws IOException {
+        out.beginObject();
+        writeInt(out, "money", player.money);
+        writeInt(out, "bet", player.bet);
+        writeInt(out, "turnBet", player.turnBet);
+        writeCards(out, "hand", player.hand);
+        if (player.state != null) {
+            out.name("state").value(player.state.name());
+        }
+        out.endObject();
+    }
+
+    private void writeCards(JsonWriter out, String name, List<Card> cards) throws IOException {
+        if (cards == null) {
+            return;
+        }
+        out.name(name);
+        out.beginArray();
+        for (Card card : cards) {
+            cardAdapter.write(out, card);
+        }
+        out.endArray();
+    }
+
+    private static void writeBoolean(JsonWriter out, String name, Boolean value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    private static void writeInt(JsonWriter out, String name, Integer value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    @Override
+    public GameStateDelta read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Integer version = null;
+        GameStateDelta delta = new GameStateDelta(0);
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "version" -> version = in.nextInt();
+                case "players" -> {
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        int seat = Integer.parseInt(in.nextName());
+                        delta.players.put(seat, readPlayer(in));
+                    }
+                    in.endObject();
+                }
+                case "communityCards" -> delta.communityCards = readCards(in);
+                case "revealedCards" -> delta.revealedCards = readCards(in);
+                case "winners" -> {
+                    delta.winners = new ArrayList<>(PokerConstants.NUM_PLAYERS);
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        delta.winners.add(playerAdapter.read(in));
+                    }
+                    in.endArray();
+                }
+                case "handRanks" -> {
+                    delta.handRanks = new ArrayList<>(PokerConstants.NUM_PLAYERS);
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        delta.handRanks.add(HandRank.valueOf(in.nextString()));
+                    }
+                    in.endArray();
+                }
+                case "equities" -> {
+                    delta.equities = new ArrayList<>(PokerConstants.NUM_PLAYERS);
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        delta.equities.add(equityAdapter.read(in));
+                    }
+                    in.endArray();
+                }
+                case "phase" -> delta.phase = GamePhase.valueOf(in.nextString());
+                case "isGameOver" -> delta.isGameOver = in.nextBoolean();
+                case "isHandOver" -> delta.isHandOver = in.nextBoolean();
+                case "currPlayer" -> delta.currPlayer = in.nextInt();
+                case "smallBlind" -> delta.smallBlind = in.nextInt();
+                case "bigBlind" -> delta.bigBlind = in.nextInt();
+                case "smallBlindBet" -> delta.smallBlindBet = in.nextInt();
+                case "bigBlindBet" -> delta.bigBlindBet = in.nextInt();
+                case "handsPlayed" -> delta.handsPlayed = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (version == null) {
+            throw new IOException("Game state delta without version");
+        }
+        delta.version = version;
+        return delta;
+    }
+
+    private GameStateDelta.PlayerDelta readPlayer(JsonReader in) throws IOException {
+        GameStateDelta.PlayerDelta player = new GameStateDelta.PlayerDelta();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "money" -> player.money = in.nextInt();
+                case "bet" -> player.bet = in.nextInt();
+                case "turnBet" -> player.turnBet = in.nextInt();
+                case "hand" -> player.hand = readCards(in);
+                case "state" -> player.state = PokerPlayer.PLAYER_STATE.valueOf(in.nextString());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return player;
+    }
+
+    private ArrayList<Card> readCards(JsonReader in) throws IOException {
+        ArrayList<Card> cards = new ArrayList<>(PokerConstants.NUM_COMMUNITY_CARDS);
+        in.beginArray();
+        while (in.hasNext()) {
+            cards.add(cardAdapter.read(in));
+        }
+        in.endArray();
+        return cards;
+    }
+}
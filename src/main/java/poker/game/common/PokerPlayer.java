@@ -1,6 +1,7 @@
 package poker.game.common;
 
 import java.util.ArrayList;
+import java.util.Objects;
 
 public class PokerPlayer {
     private final String username;
@@ -61,6 +62,23 @@ public class PokerPlayer {
         return new PokerPlayer(username, money, state, bet, turnBet);
     }
 
+    public PokerPlayer copy() {
+        PokerPlayer copy = privateCopy();
+        copy.setHand(hand == null ? null : new ArrayList<>(hand));
+        return copy;
+    }
+
+    // Unlike equals, which only identifies the player, compares everything that is shown to the table
+    boolean sameAs(PokerPlayer other) {
+        return other != null
+                && username.equals(other.username)
+                && money == other.money
+                && bet == other.bet
+                && turnBet == other.turnBet
+                && state == other.state
+                && Objects.equals(hand, other.hand);
+    }
+
     public String getUsername() {
         return username;
     }
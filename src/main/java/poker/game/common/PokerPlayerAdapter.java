@@ -0,0 +1,80 @@
+package poker.game.common;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+class PokerPlayerAdapter extends TypeAdapter<PokerPlayer> {
+    private final CardAdapter cardAdapter;
+
+    PokerPlayerAdapter(CardAdapter cardAdapter) {
+        this.cardAdapter = cardAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, PokerPlayer player) throws IOException {
+        if (player == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("username").value(player.getUsername());
+        out.name("money").value(player.getMoney());
+        out.name("bet").value(player.getBet());
+        out.name("turnBet").value(player.getTurnBet());
+        if (player.getHand() != null) {
+            out.name("hand");
+            out.beginArray();
+            for (Card card : player.getHand()) {
+                cardAdapter.write(out, card);
+            }
+            out.endArray();
+        }
+        if (player.getState() != null) {
+            out.name("state").value(player.getState().name());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public PokerPlayer read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String username = null;
+        int money = 0;
+        int bet = 0;
+        int turnBet = 0;
+        ArrayList<Card> hand = new ArrayList<>(PokerConstants.HAND_SIZE);
+        PokerPlayer.PLAYER_STATE state = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "username" -> username = in.nextString();
+                case "money" -> money = in.nextInt();
+                case "bet" -> bet = in.nextInt();
+                case "turnBet" -> turnBet = in.nextInt();
+                case "hand" -> {
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        hand.add(cardAdapter.read(in));
+                    }
+                    in.endArray();
+                }
+                case "state" -> state = PokerPlayer.PLAYER_STATE.valueOf(in.nextString());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        PokerPlayer player = new PokerPlayer(username, money, state, bet, turnBet);
+        player.setHand(hand);
+        return player;
+    }
+}
@@ -0,0 +1,167 @@
+package poker.game.server;
+
+import poker.game.common.Card;
+import poker.game.common.Equity;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+import static poker.game.common.PokerConstants.NUM_COMMUNITY_CARDS;
+
+/*
+    Win and tie probabilities of every player over the community cards still to come. Hands and board are card masks as
+    used by HandEvaluator, a seat without cards (mask 0) is not in the hand and gets no equity. Small run-outs are
+    enumerated, larger ones are sampled in parallel on the common fork/join pool, each task with its own generator.
+ */
+public final class EquityCalculator {
+    private static final long EXHAUSTIVE_LIMIT = 20_000;
+    private static final int SAMPLES = 20_000;
+    private static final int SAMPLES_PER_TASK = 2_500;
+
+    private static final RandomGenerator.SplittableGenerator ROOT =
+            (RandomGenerator.SplittableGenerator) RandomGeneratorFactory.of("L64X128MixRandom").create();
+
+    private EquityCalculator() {
+        throw new AssertionError("This class should not be instantiated.");
+    }
+
+    public static Equity[] calculate(long[] holeCards, long board) {
+        RandomGenerator.SplittableGenerator generator;
+        synchronized (ROOT) {
+            generator = ROOT.split();
+        }
+        return calculate(holeCards, board, SAMPLES, generator);
+    }
+
+    public static Equity[] calculate(long[] holeCards, long board, int samples, RandomGenerator.SplittableGenerator generator) {
+        long dead = board;
+        for (long hand : holeCards) {
+            dead |= hand;
+        }
+        int[] deck = new int[Card.DECK_SIZE - Long.bitCount(dead)];
+        for (int card = 0, i = 0; card < Card.DECK_SIZE; card++) {
+            if ((dead & (1L << card)) == 0) {
+                deck[i++] = card;
+            }
+        }
+        int missing = NUM_COMMUNITY_CARDS - Long.bitCount(board);
+
+        long[][] tally;
+        long total;
+        if (combinations(deck.length, missing) <= EXHAUSTIVE_LIMIT) {
+            tally = new long[2][holeCards.length];
+            total = enumerate(holeCards, board, deck, 0, missing, tally);
+        } else {
+            tally = ForkJoinPool.commonPool().invoke(new Sampler(holeCards, board, deck, missing, samples, generator));
+            total = samples;
+        }
+
+        Equity[] equities = new Equity[holeCards.length];
+        for (int i = 0; i < holeCards.length; i++) {
+            if (holeCards[i] != 0) {
+                equities[i] = new Equity((double) tally[0][i] / total, (double) tally[1][i] / total);
+            }
+        }
+        return equities;
+    }
+
+    private static long enumerate(long[] holeCards, long board, int[] deck, int from, int missing, long[][] tally) {
+        if (missing == 0) {
+            showdown(holeCards, board, tally);
+            return 1;
+        }
+        long runOuts = 0;
+        for (int i = from; i <= deck.length - missing; i++) {
+            runOuts += enumerate(holeCards, board | (1L << deck[i]), deck, i + 1, missing - 1, tally);
+        }
+        return runOuts;
+    }
+
+    // Credits a win to a single best hand, or a tie to every player sharing it
+    private static void showdown(long[] holeCards, long board, long[][] tally) {
+        int best = -1;
+        int winner = -1;
+        int winners = 0;
+        for (int i = 0; i < holeCards.length; i++) {
+            if (holeCards[i] == 0) {
+                continue;
+            }
+            int strength = HandEvaluator.evaluate(board | holeCards[i]);
+            if (strength > best) {
+                best = strength;
+                winner = i;
+                winners = 1;
+            } else if (strength == best) {
+                winners++;
+            }
+        }
+        if (winners == 1) {
+            tally[0][winner]++;
+            return;
+        }
+        for (int i = winner; i < holeCards.length; i++) {
+            if (holeCards[i] != 0 && HandEvaluator.evaluate(board | holeCards[i]) == best) {
+                tally[1][i]++;
+            }
+        }
+    }
+
+    private static long combinations(int n, int k) {
+        long combinations = 1;
+        for (int i = 0; i < k; i++) {
+            combinations = combinations * (n - i) / (i + 1);
+        }
+        return combinations;
+    }
+
+    private static class Sampler extends RecursiveTask<long[][]> {
+        private final long[] holeCards;
+        private final long board;
+        private final int[] deck;
+        private final int missing;
+        private final int samples;
+        private final RandomGenerator.SplittableGenerator generator;
+
+        Sampler(long[] holeCards, long board, int[] deck, int missing, int samples, RandomGenerator.SplittableGenerator generator) {
+            this.holeCards = holeCards;
+            this.board = board;
+            this.deck = deck;
+            this.missing = missing;
+            this.samples = samples;
+            this.generator = generator;
+        }
+
+        @Override
+        protected long[][] compute() {
+            if (samples > SAMPLES_PER_TASK) {
+                Sampler left = new Sampler(holeCards, board, deck, missing, samples / 2, generator.split());
+                Sampler right = new Sampler(holeCards, board, deck, missing, samples - samples / 2, generator);
+                left.fork();
+                long[][] tally = right.compute();
+                long[][] other = left.join();
+                for (int i = 0; i < holeCards.length; i++) {
+                    tally[0][i] += other[0][i];
+                    tally[1][i] += other[1][i];
+                }
+                return tally;
+            }
+
+            long[][] tally = new long[2][holeCards.length];
+            int[] cards = deck.clone();
+            for (int sample = 0; sample < samples; sample++) {
+                long runOut = board;
+                for (int i = 0; i < missing; i++) {
+                    int j = i + generator.nextInt(cards.length - i);
+                    int card = cards[j];
+                    cards[j] = cards[i];
+                    cards[i] = card;
+                    runOut |= 1L << card;
+                }
+                showdown(holeCards, runOut, tally);
+            }
+            return tally;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package poker.game.server;
+
+import poker.game.common.Card;
+import poker.game.common.HandRank;
+
+import java.util.List;
+
+/*
+    Evaluates hands of up to 7 cards given as a 52 bit mask of Card indexes. The result is a single strength
+    value where the HandRank ordinal sits in the top bits and the ranks that break ties inside that category in the
+    bits below, so two hands compare by comparing their values.
+ */
+public final class HandEvaluator {
+    private static final int RANKS = 13;
+    private static final int RANK_MASK = (1 << RANKS) - 1;
+    private static final int CATEGORY_SHIFT = 2 * RANKS;
+    private static final HandRank[] HAND_RANKS = HandRank.values();
+
+    // Indexed by a 13 bit rank mask: top rank of the best straight plus one (0 if none) and the five highest ranks
+    private static final byte[] STRAIGHTS = new byte[1 << RANKS];
+    private static final short[] TOP_FIVE = new short[1 << RANKS];
+
+    static {
+        int wheel = (1 << 12) | 0b1111;
+        for (int mask = 0; mask < (1 << RANKS); mask++) {
+            for (int top = RANKS - 1; top >= 4; top--) {
+                int straight = 0b11111 << (top - 4);
+                if ((mask & straight) == straight) {
+                    STRAIGHTS[mask] = (byte) (top + 1);
+                    break;
+                }
+            }
+            if (STRAIGHTS[mask] == 0 && (mask & wheel) == wheel) {
+                STRAIGHTS[mask] = 4;
+            }
+            TOP_FIVE[mask] = (short) top(mask, 5);
+        }
+    }
+
+    private HandEvaluator() {
+        throw new AssertionError("This class should not be instantiated.");
+    }
+
+    public static long mask(List<Card> cards) {
+        long mask = 0;
+        for (int i = 0; i < cards.size(); i++) {
+            mask |= 1L << cards.get(i).index();
+        }
+        return mask;
+    }
+
+    public static HandRank rankOf(int strength) {
+        return HAND_RANKS[strength >>> CATEGORY_SHIFT];
+    }
+
+    public static int evaluate(long cards) {
+        if (Long.bitCount(cards) < 5) {
+            return 0;
+        }
+        int hearts = (int) cards & RANK_MASK;
+        int diamonds = (int) (cards >>> RANKS) & RANK_MASK;
+        int clubs = (int) (cards >>> (2 * RANKS)) & RANK_MASK;
+        int spades = (int) (cards >>> (3 * RANKS)) & RANK_MASK;
+
+        int flush = 0;
+        if (Integer.bitCount(hearts) >= 5) flush = hearts;
+        else if (Integer.bitCount(diamonds) >= 5) flush = diamonds;
+        else if (Integer.bitCount(clubs) >= 5) flush = clubs;
+        else if (Integer.bitCount(spades) >= 5) flush = spades;
+
+        if (flush != 0) {
+            int straightFlush = STRAIGHTS[flush];
+            if (straightFlush == RANKS) {
+                return value(HandRank.ROYAL_FLUSH, 0, straightFlush);
+            }
+            if (straightFlush != 0) {
+                return value(HandRank.STRAIGHT_FLUSH, 0, straightFlush);
+            }
+        }
+
+        int ranks = hearts | diamonds | clubs | spades;
+        int fours = hearts & diamonds & clubs & spades;
+        int threesOrMore = (hearts & diamonds & clubs) | (hearts & diamonds & spades) | (hearts & clubs & spades) | (diamonds & clubs & spades);
+        int twosOrMore = (hearts & diamonds) | (hearts & clubs) | (hearts & spades) | (diamonds & clubs) | (diamonds & spades) | (clubs & spades);
+
+        if (fours != 0) {
+            return value(HandRank.FOUR_OF_A_KIND, fours, Integer.highestOneBit(ranks & ~fours));
+        }
+        if (threesOrMore != 0) {
+            int three = Integer.highestOneBit(threesOrMore);
+            int pair = Integer.highestOneBit(twosOrMore & ~three);
+            if (pair != 0) {
+                return value(HandRank.FULL_HOUSE, three, pair);
+            }
+        }
+        if (flush != 0) {
+            return value(HandRank.FLUSH, 0, TOP_FIVE[flush]);
+        }
+        int straight = STRAIGHTS[ranks];
+        if (straight != 0) {
+            return value(HandRank.STRAIGHT, 0, straight);
+        }
+        if (threesOrMore != 0) {
+            int three = Integer.highestOneBit(threesOrMore);
+            return value(HandRank.THREE_OF_A_KIND, three, top(ranks & ~three, 2));
+        }
+        if (twosOrMore != 0) {
+            int pairs = top(twosOrMore, 2);
+            if (Integer.bitCount(pairs) == 2) {
+                return value(HandRank.TWO_PAIR, pairs, Integer.highestOneBit(ranks & ~pairs));
+            }
+            return value(HandRank.PAIR, pairs, top(ranks & ~pairs, 3));
+        }
+        return value(HandRank.HIGH_CARD, 0, TOP_FIVE[ranks]);
+    }
+
+    private static int value(HandRank rank, int primary, int kickers) {
+        return (rank.ordinal() << CATEGORY_SHIFT) | (primary << RANKS) | kickers;
+    }
+
+    private static int top(int mask, int count) {
+        int top = 0;
+        for (int i = 0; i < count && mask != 0; i++) {
+            int bit = Integer.highestOneBit(mask);
+            top |= bit;
+            mask ^= bit;
+        }
+        return top;
+    }
+}
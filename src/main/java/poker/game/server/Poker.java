@@ -3,6 +3,7 @@ package poker.game.server;
 import poker.game.common.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 
 import static poker.game.common.PokerConstants.*;
@@ -25,8 +26,31 @@ public class Poker {
     private final Deck deck = new Deck();
     private final ArrayList<Card> communityCards = new ArrayList<>(NUM_COMMUNITY_CARDS);
     private final HandRanker handRanker = new HandRanker(this);
+    private final TableRandom random;
+    private final ArrayList<Long> handSeeds = new ArrayList<>(MAX_NUM_HANDS);
+
+    // Bumped on every state change, the views sent to players are rebuilt lazily when it moves
+    private int generation = 0;
+    private int snapshotGeneration = -1;
+    private ArrayList<PokerPlayer> playersSnapshot;
+    private ArrayList<PokerPlayer> winnersSnapshot;
+    private ArrayList<Card> communityCardsSnapshot;
+    private ArrayList<HandRank> handRanksSnapshot;
+    private ArrayList<Equity> equitiesSnapshot;
+    private GameState[] viewerSnapshots;
+
+    // Showdown results, computed once per hand
+    private ArrayList<PokerPlayer> handWinners;
+    private ArrayList<HandRank> handRanks;
+    private ArrayList<Equity> handEquities;
+    private int showdownCommunityCards;
 
     public Poker(ArrayList<String> players) {
+        this(players, TableRandom.fast());
+    }
+
+    public Poker(ArrayList<String> players, TableRandom random) {
+        this.random = random;
         this.handsPlayed = 0;
         this.smallBlindBet = 50;
         this.bigBlindBet = 100;
@@ -85,6 +109,15 @@ public class Poker {
         return this.handsPlayed;
     }
 
+    // Shuffle seed of every hand so far, null for hands that can't be replayed (SECURE tables)
+    public ArrayList<Long> getHandSeeds() {
+        return this.handSeeds;
+    }
+
+    public Long getHandSeed() {
+        return this.random.getHandSeed();
+    }
+
     private boolean isPlayerInactive(int playerIndex) {
         return this.players.get(playerIndex).getState() == PokerPlayer.PLAYER_STATE.FOLDED || this.players.get(playerIndex).getState() == PokerPlayer.PLAYER_STATE.ALL_IN || this.players.get(playerIndex).getState() == PokerPlayer.PLAYER_STATE.OUT_OF_MONEY;
     }
@@ -141,10 +174,53 @@ public class Poker {
     }
 
     public ArrayList<PokerPlayer> getHandWinners() {
-        return handRanker.getWinners();
+        if (!this.isHandOver) {
+            return handRanker.getWinners();
+        }
+        if (this.handWinners == null) {
+            this.handWinners = handRanker.getWinners();
+        }
+        return new ArrayList<>(this.handWinners);
+    }
+
+    // Equity of every player at the moment the betting stopped, for all-in showdowns decided before the river
+    public synchronized ArrayList<Equity> getHandEquities() {
+        if (!this.isHandOver) {
+            return new ArrayList<>();
+        }
+        if (this.handEquities == null) {
+            this.handEquities = new ArrayList<>();
+            if (this.showdownCommunityCards < NUM_COMMUNITY_CARDS && this.getActivePlayers().size() > 1) {
+                long[] holeCards = new long[players.size()];
+                for (int i = 0; i < players.size(); i++) {
+                    PokerPlayer.PLAYER_STATE playerState = players.get(i).getState();
+                    if (playerState != PokerPlayer.PLAYER_STATE.FOLDED && playerState != PokerPlayer.PLAYER_STATE.OUT_OF_MONEY) {
+                        holeCards[i] = HandEvaluator.mask(players.get(i).getHand());
+                    }
+                }
+                long board = HandEvaluator.mask(this.communityCards.subList(0, this.showdownCommunityCards));
+                this.handEquities.addAll(Arrays.asList(EquityCalculator.calculate(holeCards, board)));
+            }
+        }
+        return this.handEquities;
+    }
+
+    private ArrayList<HandRank> getHandRanks() {
+        if (this.handRanks == null) {
+            this.handRanks = new ArrayList<>(players.size());
+            for (PokerPlayer player : players) {
+                this.handRanks.add(handRanker.analyzeHand(player));
+            }
+        }
+        return this.handRanks;
     }
 
     private void startHand() {
+        this.generation++;
+        this.handWinners = null;
+        this.handRanks = null;
+        this.handEquities = null;
+        this.showdownCommunityCards = NUM_COMMUNITY_CARDS;
         this.pot = 0;
         this.lastRaiser = -1;
         this.currBet = 0;
@@ -154,15 +230,18 @@ public class Poker {
         this.isGameOver = false;
 
         deck.reset();
-        deck.shuffle();
+        deck.shuffle(random.nextHand());
+        handSeeds.add(random.getHandSeed());
 
         for (PokerPlayer player : players) {
-            if (player.getState() != PokerPlayer.PLAYER_STATE.OUT_OF_MONEY)
-                player.setHand(deck.dealCards(HAND_SIZE));
+            if (player.getState() != PokerPlayer.PLAYER_STATE.OUT_OF_MONEY) {
+                player.getHand().clear();
+                deck.dealCards(player.getHand(), HAND_SIZE);
+            }
         }
 
         this.communityCards.clear();
-        this.communityCards.addAll(deck.dealCards(NUM_COMMUNITY_CARDS));
+        deck.dealCards(this.communityCards, NUM_COMMUNITY_CARDS);
         this.takeAction(PokerPlayer.PLAYER_ACTION.BET, this.smallBlindBet);
         this.takeAction(PokerPlayer.PLAYER_ACTION.BET, this.bigBlindBet);
     }
@@ -180,7 +259,8 @@ public class Poker {
         this.startHand();
     }
 
-    public void endHand() {
+    public synchronized void endHand() {
+        this.generation++;
         ArrayList<PokerPlayer> winners = this.getHandWinners();
         winners.sort(Comparator.comparingInt(PokerPlayer::getBet));
 
@@ -209,6 +289,7 @@ public class Poker {
     }
 
     public void nextTurn() {
+        this.generation++;
         switch (this.state) {
             case PREFLOP:
                 this.state = GamePhase.FLOP;
@@ -235,6 +316,7 @@ public class Poker {
     }
 
     public void nextPlayer() {
+        this.generation++;
         this.currPlayer = (this.currPlayer + 1) % NUM_PLAYERS;
     }
 
@@ -242,6 +324,7 @@ public class Poker {
         this.nextPlayer();
         if (this.isHandOver()) {
             this.isHandOver = true;
+            this.showdownCommunityCards = this.visibleCommunityCards();
             this.state = GamePhase.RIVER;
         } else if (this.currPlayer == this.lastRaiser) {
             this.nextTurn();
@@ -250,8 +333,9 @@ public class Poker {
         }
     }
 
-    public void takeAction(PokerPlayer.PLAYER_ACTION action, int amount) {
+    public synchronized void takeAction(PokerPlayer.PLAYER_ACTION action, int amount) {
         if (this.isHandOver || this.isGameOver) return;
+        this.generation++;
         PokerPlayer player = this.players.get(this.currPlayer);
         int playerBet = player.getBet();
         switch (action) {
@@ -285,53 +369,61 @@ public class Poker {
         this.afterPlayerAction();
     }
 
-    public GameState getGameStateToSend(int playerAsking) {
-        ArrayList<PokerPlayer> playersToSend = new ArrayList<>();
-        ArrayList<PokerPlayer> winnersToSend = new ArrayList<>();
-        ArrayList<Card> communityCardsToSend = new ArrayList<>();
-        ArrayList<HandRank> handRanksToSend = new ArrayList<>();
+    public synchronized GameState getGameStateToSend(int playerAsking) {
+        if (this.snapshotGeneration != this.generation) {
+            this.takeSnapshot();
+        }
+        GameState gameState = this.viewerSnapshots[playerAsking];
+        if (gameState == null) {
+            ArrayList<PokerPlayer> playersToSend = this.playersSnapshot;
+            if (!this.isGameOver && !this.isHandOver) {
+                playersToSend = new ArrayList<>(this.playersSnapshot);
+                playersToSend.set(playerAsking, this.players.get(playerAsking).copy());
+            }
+            gameState = new GameState(playersToSend, winnersSnapshot, communityCardsSnapshot, handRanksSnapshot, equitiesSnapshot, state, isGameOver, isHandOver, playerAsking, currPlayer, smallBlind, bigBlind, smallBlindBet, bigBlindBet, handsPlayed);
+            this.viewerSnapshots[playerAsking] = gameState;
+        }
+        return gameState;
+    }
+
+    private int visibleCommunityCards() {
+        return switch (this.state) {
+            case PREFLOP -> 0;
+            case FLOP -> NUM_FLOP_CARDS;
+            case TURN -> NUM_FLOP_CARDS + NUM_TURN_CARDS;
+            case RIVER -> NUM_COMMUNITY_CARDS;
+        };
+    }
+
+    // The part of the state every player sees, only the viewer's own hole cards are added to it
+    private void takeSnapshot() {
+        this.playersSnapshot = new ArrayList<>(players.size());
+        this.winnersSnapshot = new ArrayList<>();
+        this.handRanksSnapshot = new ArrayList<>();
+        this.equitiesSnapshot = new ArrayList<>();
 
         if (this.isGameOver) {
-            winnersToSend = this.getGameWinners();
+            for (PokerPlayer winner : this.getGameWinners()) {
+                this.winnersSnapshot.add(winner.copy());
+            }
         } else if (this.isHandOver) {
             for (PokerPlayer player : players) {
-                handRanksToSend.add(handRanker.analyzeHand(player));
+                this.playersSnapshot.add(player.copy());
             }
-            playersToSend.addAll(players);
-            winnersToSend = this.getHandWinners();
+            for (PokerPlayer winner : this.getHandWinners()) {
+                this.winnersSnapshot.add(this.playersSnapshot.get(players.indexOf(winner)));
+            }
+            this.handRanksSnapshot = this.getHandRanks();
+            this.equitiesSnapshot = this.getHandEquities();
         } else {
             for (PokerPlayer player : players) {
-                if (player.getUsername().equals(players.get(playerAsking).getUsername())) {
-                    playersToSend.add(player);
-                } else {
-                    playersToSend.add(player.privateCopy());
-                }
+                this.playersSnapshot.add(player.privateCopy());
             }
         }
 
-        switch (this.state) {
-            case PREFLOP:
-                break;
-            case FLOP:
-                communityCardsToSend.add(this.communityCards.get(0));
-                communityCardsToSend.add(this.communityCards.get(1));
-                communityCardsToSend.add(this.communityCards.get(2));
-                break;
-            case TURN:
-                communityCardsToSend.add(this.communityCards.get(0));
-                communityCardsToSend.add(this.communityCards.get(1));
-                communityCardsToSend.add(this.communityCards.get(2));
-                communityCardsToSend.add(this.communityCards.get(3));
-                break;
-            case RIVER:
-                communityCardsToSend.add(this.communityCards.get(0));
-                communityCardsToSend.add(this.communityCards.get(1));
-                communityCardsToSend.add(this.communityCards.get(2));
-                communityCardsToSend.add(this.communityCards.get(3));
-                communityCardsToSend.add(this.communityCards.get(4));
-                break;
-        }
+        this.communityCardsSnapshot = new ArrayList<>(this.communityCards.subList(0, this.visibleCommunityCards()));
 
-        return new GameState(playersToSend, winnersToSend, communityCardsToSend, handRanksToSend, state, isGameOver, isHandOver, playerAsking, currPlayer, smallBlind, bigBlind, smallBlindBet, bigBlindBet, handsPlayed);
+        this.viewerSnapshots = new GameState[players.size()];
+        this.snapshotGeneration = this.generation;
     }
 }
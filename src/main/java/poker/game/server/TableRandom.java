@@ -0,0 +1,63 @@
+package poker.game.server;
+
+import java.security.SecureRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/*
+    Source of the shuffles of one table. FAST and SEEDED tables draw a seed for every hand and shuffle with a generator
+    created from it, so any hand can be replayed from its recorded seed. SECURE tables shuffle straight from the
+    platform CSPRNG and have no seed to record.
+ */
+public class TableRandom {
+    public enum Mode {
+        FAST, SECURE, SEEDED
+    }
+
+    private static final RandomGeneratorFactory<RandomGenerator> FACTORY = RandomGeneratorFactory.of("L64X128MixRandom");
+    private static final RandomGenerator.SplittableGenerator ROOT = (RandomGenerator.SplittableGenerator) FACTORY.create();
+
+    private final Mode mode;
+    private final RandomGenerator generator;
+    private Long handSeed = null;
+
+    private TableRandom(Mode mode, RandomGenerator generator) {
+        this.mode = mode;
+        this.generator = generator;
+    }
+
+    public static TableRandom fast() {
+        synchronized (ROOT) {
+            return new TableRandom(Mode.FAST, ROOT.split());
+        }
+    }
+
+    public static TableRandom secure() {
+        return new TableRandom(Mode.SECURE, new SecureRandom());
+    }
+
+    public static TableRandom seeded(long seed) {
+        return new TableRandom(Mode.SEEDED, FACTORY.create(seed));
+    }
+
+    public static RandomGenerator replay(long handSeed) {
+        return FACTORY.create(handSeed);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // Seed of the last hand returned by nextHand(), null in SECURE mode
+    public Long getHandSeed() {
+        return handSeed;
+    }
+
+    public RandomGenerator nextHand() {
+        if (mode == Mode.SECURE) {
+            return generator;
+        }
+        handSeed = generator.nextLong();
+        return replay(handSeed);
+    }
+}
@@ -0,0 +1,93 @@
+package poker.connection.protocol.transport;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import poker.connection.protocol.channels.ServerChannel;
+import poker.connection.protocol.codec.Codecs;
+import poker.connection.protocol.message.Message;
+import poker.connection.utils.TlsContexts;
+
+import javax.net.ssl.SSLSocket;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static poker.connection.protocol.message.State.CONNECTION_CHECK;
+import static poker.connection.protocol.message.Status.OK;
+import static poker.connection.protocol.message.Status.REQUEST;
+
+public class SelectorLoopTest {
+
+    // The answers to a peer that only writes pile up on the server, they mustn't hold up the selector thread
+    @Test
+    @Timeout(30)
+    public void keepsServingWhileAPeerDoesntRead() throws Exception {
+        SelectorLoop loop = new SelectorLoop();
+        int port = freePort();
+        loop.listen(port, 16, TlsContexts.server(), 5000, ServerChannel::new);
+        loop.start();
+        byte[] check = Codecs.JSON.encode(new Message(CONNECTION_CHECK, REQUEST, null, null, null));
+        byte[] checks = new byte[check.length * 1000];
+        for (int i = 0; i < 1000; i++) {
+            System.arraycopy(check, 0, checks, i * check.length, check.length);
+        }
+
+        try (SSLSocket silent = connect(port, 1024)) {
+            OutputStream out = silent.getOutputStream();
+            Thread flooder = Thread.ofVirtual().start(() -> {
+                try {
+                    while (true) {
+                        out.write(checks);
+                    }
+                } catch (IOException ignored) {}
+            });
+            // Long enough for the answers to fill the socket and the server's buffers
+            Thread.sleep(2000);
+
+            for (int i = 0; i < 3; i++) {
+                try (SSLSocket client = connect(port, 64 * 1024)) {
+                    client.getOutputStream().write(check);
+                    Message answer = Codecs.decode(readLine(client.getInputStream()));
+                    assertEquals(CONNECTION_CHECK, answer.getState());
+                    assertEquals(OK, answer.getStatus());
+                }
+            }
+            flooder.interrupt();
+        } finally {
+            loop.interrupt();
+        }
+    }
+
+    private static SSLSocket connect(int port, int receiveBufferSize) throws IOException {
+        SSLSocket socket = (SSLSocket) TlsContexts.client().getSocketFactory().createSocket();
+        socket.setReceiveBufferSize(receiveBufferSize);
+        socket.connect(new InetSocketAddress("localhost", port), 5000);
+        // The handshake and the answers both need the selector thread, neither should wait for long
+        socket.setSoTimeout(5000);
+        socket.startHandshake();
+        return socket;
+    }
+
+    private static byte[] readLine(InputStream in) throws IOException {
+        byte[] line = new byte[1024];
+        int length = 0;
+        int read;
+        while ((read = in.read()) != '\n') {
+            if (read < 0) {
+                fail("The connection was closed before the answer");
+            }
+            line[length++] = (byte) read;
+        }
+        return Arrays.copyOf(line, length);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket probe = new ServerSocket(0)) {
+            return probe.getLocalPort();
+        }
+    }
+}
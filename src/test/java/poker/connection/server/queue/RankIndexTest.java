@@ -0,0 +1,149 @@
+package poker.connection.server.queue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import poker.connection.protocol.Connection;
+import poker.game.common.PokerConstants;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RankIndexTest {
+    private static final long NOW = Threshold.RELAX_INTERVAL_NANOS * 100;
+
+    private record Player(Connection connection, Threshold threshold) {
+    }
+
+    // Against the search the ranked queuer used to do: every combination of players, pairwise compatible
+    @Test
+    public void findsTheNarrowestGroupTheBruteForceSearchFinds() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            List<Player> players = randomQueue(random, 6 + random.nextInt(9));
+            RankIndex index = new RankIndex();
+            for (Player player : players) {
+                index.add(player.connection(), player.threshold(), NOW);
+            }
+
+            ArrayList<Connection> match = index.findMatch(NOW);
+
+            Player first = null;
+            int expectedSpread = -1;
+            for (Player player : players) {
+                expectedSpread = narrowestSpread(players, player);
+                if (expectedSpread != -1) {
+                    first = player;
+                    break;
+                }
+            }
+            if (first == null) {
+                assertTrue(match.isEmpty(), "round " + round + " matched players no group fits");
+                continue;
+            }
+            assertEquals(PokerConstants.NUM_PLAYERS, match.size(), "round " + round);
+            assertTrue(match.contains(first.connection()), "round " + round + " left out the player searched");
+            List<Player> group = new ArrayList<>();
+            for (Player player : players) {
+                if (match.contains(player.connection())) {
+                    group.add(player);
+                }
+            }
+            assertTrue(compatible(group), "round " + round + " matched incompatible players");
+            assertEquals(expectedSpread, spread(group), "round " + round);
+        }
+    }
+
+    // relax() used to reschedule a threshold that covers every rank at a time already past, forever
+    @Test
+    @Timeout(5)
+    public void stopsRelaxingOnceThresholdsStopWidening() {
+        RankIndex index = new RankIndex();
+        Connection connection = new Connection("player", null, null, 1000);
+        index.add(connection, new Threshold(1000, 0), 0);
+        index.findMatch(0);
+
+        for (int interval = 1; interval <= 20; interval++) {
+            assertTrue(index.relax(interval * Threshold.RELAX_INTERVAL_NANOS), "interval " + interval);
+        }
+        assertFalse(index.relax(21 * Threshold.RELAX_INTERVAL_NANOS));
+        assertFalse(index.relax(100 * Threshold.RELAX_INTERVAL_NANOS));
+    }
+
+    // The ranked queuer tells whether a player is already queued by what replace() returns
+    @Test
+    public void replaceKeepsThePlayerQueuedWithTheNewConnection() {
+        RankIndex index = new RankIndex();
+        Connection old = new Connection("player", null, null, 1000);
+        assertNull(index.replace(old));
+        assertEquals(0, index.size());
+
+        index.add(old, new Threshold(1000, NOW), NOW);
+        Connection reconnected = new Connection("player", null, null, 1000);
+        assertSame(old, index.replace(reconnected));
+        assertEquals(1, index.size());
+        assertSame(reconnected, index.replace(new Connection("player", null, null, 1000)));
+    }
+
+    private static List<Player> randomQueue(Random random, int size) {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            players.add(player("player" + i, 900 + random.nextInt(400), random.nextInt(3)));
+        }
+        return players;
+    }
+
+    private static Player player(String username, int rank, int relaxations) {
+        Connection connection = new Connection(username, null, null, rank);
+        Threshold threshold = new Threshold(rank, NOW - relaxations * Threshold.RELAX_INTERVAL_NANOS);
+        return new Player(connection, threshold);
+    }
+
+    // -1 if the player isn't part of any compatible group
+    private static int narrowestSpread(List<Player> players, Player player) {
+        List<Player> others = new ArrayList<>(players);
+        others.remove(player);
+        List<Player> group = new ArrayList<>();
+        group.add(player);
+        return narrowestSpread(others, 0, group);
+    }
+
+    private static int narrowestSpread(List<Player> others, int from, List<Player> group) {
+        if (group.size() == PokerConstants.NUM_PLAYERS) {
+            return compatible(group) ? spread(group) : -1;
+        }
+        int narrowest = -1;
+        for (int i = from; i < others.size(); i++) {
+            group.add(others.get(i));
+            int spread = narrowestSpread(others, i + 1, group);
+            if (spread != -1 && (narrowest == -1 || spread < narrowest)) {
+                narrowest = spread;
+            }
+            group.removeLast();
+        }
+        return narrowest;
+    }
+
+    private static boolean compatible(List<Player> group) {
+        for (Player player : group) {
+            for (Player other : group) {
+                if (!player.threshold().contains(other.connection().getRank(), NOW)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int spread(List<Player> group) {
+        int lowest = Integer.MAX_VALUE;
+        int highest = Integer.MIN_VALUE;
+        for (Player player : group) {
+            lowest = Math.min(lowest, player.connection().getRank());
+            highest = Math.max(highest, player.connection().getRank());
+        }
+        return highest - lowest;
+    }
+}
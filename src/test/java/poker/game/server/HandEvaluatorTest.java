@@ -0,0 +1,121 @@
+package poker.game.server;
+
+import org.junit.jupiter.api.Test;
+import poker.game.common.Card;
+import poker.game.common.HandRank;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HandEvaluatorTest {
+
+    @Test
+    public void wheelIsTheLowestStraight() {
+        int wheel = evaluate("AH 2D 3C 4S 5H 9D KC");
+        assertEquals(HandRank.STRAIGHT, HandEvaluator.rankOf(wheel));
+        assertTrue(wheel < evaluate("2H 3D 4C 5S 6H 9D KC"));
+        assertTrue(wheel > evaluate("AH AD KC QS 9H 7D 2C"));
+    }
+
+    @Test
+    public void straightUsesItsHighestFiveCards() {
+        assertEquals(evaluate("4H 5D 6C 7S 8H 9D 2C"), evaluate("5H 6D 7C 8S 9H 2D 3C"));
+        assertTrue(evaluate("4H 5D 6C 7S 8H 9D TC") > evaluate("4H 5D 6C 7S 8H 9D 2C"));
+    }
+
+    @Test
+    public void wheelOfOneSuitIsAStraightFlushAndNotRoyal() {
+        int steelWheel = evaluate("AH 2H 3H 4H 5H KD KC");
+        assertEquals(HandRank.STRAIGHT_FLUSH, HandEvaluator.rankOf(steelWheel));
+        assertTrue(steelWheel < evaluate("2H 3H 4H 5H 6H KD KC"));
+        assertEquals(HandRank.ROYAL_FLUSH, HandEvaluator.rankOf(evaluate("TS JS QS KS AS 2H 3D")));
+    }
+
+    @Test
+    public void flushBeatsAStraightInTheSameCards() {
+        int hand = evaluate("5H 6H 7D 8H 9C KH 2H");
+        assertEquals(HandRank.FLUSH, HandEvaluator.rankOf(hand));
+        assertTrue(hand > evaluate("5H 6D 7D 8H 9C KS 2H"));
+    }
+
+    @Test
+    public void straightAndFlushInTheSameCardsIsNotAStraightFlush() {
+        assertEquals(HandRank.FLUSH, HandEvaluator.rankOf(evaluate("4H 5H 6H 7H 8D KH 2C")));
+    }
+
+    @Test
+    public void flushesCompareAllFiveCards() {
+        assertTrue(evaluate("AH KH 9H 7H 3H 2D 2C") > evaluate("AH KH 9H 7H 2H 3D 3C"));
+        // Only the five highest of six suited cards count
+        assertEquals(evaluate("AH KH 9H 7H 4H 3H QD"), evaluate("AH KH 9H 7H 4H 2H JD"));
+    }
+
+    @Test
+    public void twoThreesOfAKindMakeAFullHouse() {
+        int hand = evaluate("9H 9D 9C 4S 4H 4D KC");
+        assertEquals(HandRank.FULL_HOUSE, HandEvaluator.rankOf(hand));
+        assertTrue(hand > evaluate("9H 9D 9C 3S 3H KD QC"));
+        assertTrue(hand < evaluate("TH TD TC 2S 2H KD QC"));
+    }
+
+    @Test
+    public void fourOfAKindTakesTheHighestKicker() {
+        int hand = evaluate("7H 7D 7C 7S KH KD 2C");
+        assertEquals(HandRank.FOUR_OF_A_KIND, HandEvaluator.rankOf(hand));
+        assertTrue(hand > evaluate("7H 7D 7C 7S QH QD QC"));
+    }
+
+    @Test
+    public void threePairsPlayTheBestTwoAndTheBestKicker() {
+        int hand = evaluate("KH KD 8C 8S 4H 4D 2C");
+        assertEquals(HandRank.TWO_PAIR, HandEvaluator.rankOf(hand));
+        // The third pair is the kicker, not the lower card
+        assertEquals(hand, evaluate("KH KD 8C 8S 4H 3D 2C"));
+        assertTrue(evaluate("KH KD 8C 8S 4H 4D 5C") > hand);
+    }
+
+    @Test
+    public void kickersBreakTies() {
+        assertTrue(evaluate("AH AD KC 9S 7H 4D 2C") > evaluate("AH AD QC 9S 7H 4D 2C"));
+        assertTrue(evaluate("AH AD KC 9S 7H 4D 2C") > evaluate("AH AD KC 8S 7H 4D 2C"));
+        assertTrue(evaluate("QH QD QC AS 3H 5D 7C") > evaluate("QH QD QC KS JH 5D 7C"));
+        assertTrue(evaluate("AH KD 9C 7S 5H 3D 2C") > evaluate("AH KD 9C 7S 4H 3D 2C"));
+    }
+
+    @Test
+    public void cardsPastTheFifthDontBreakTies() {
+        assertEquals(evaluate("AH AD KC QS JH 4D 2C"), evaluate("AH AD KC QS JH 3D 2C"));
+        assertEquals(evaluate("AH KD QC JS 9H 4D 3C"), evaluate("AH KD QC JS 9H 5D 2C"));
+    }
+
+    @Test
+    public void playersPlayingTheBoardSplitThePot() {
+        String board = "TH JD QC KS AH ";
+        assertEquals(evaluate(board + "2C 3D"), evaluate(board + "4S 5H"));
+        board = "9H 9D 9C 9S AH ";
+        assertEquals(evaluate(board + "2C 3D"), evaluate(board + "KS QH"));
+    }
+
+    @Test
+    public void fewerThanFiveCardsHaveNoRank() {
+        assertEquals(HandRank.NONE, HandEvaluator.rankOf(evaluate("AH AD AC AS")));
+    }
+
+    private static int evaluate(String cards) {
+        long mask = 0;
+        for (String card : cards.split(" ")) {
+            mask |= 1L << parse(card).index();
+        }
+        return HandEvaluator.evaluate(mask);
+    }
+
+    private static Card parse(String card) {
+        Card.Rank rank = Card.Rank.values()["23456789TJQKA".indexOf(card.charAt(0))];
+        Card.Suit suit = switch (card.charAt(1)) {
+            case 'H' -> Card.Suit.HEARTS;
+            case 'D' -> Card.Suit.DIAMONDS;
+            case 'C' -> Card.Suit.CLUBS;
+            default -> Card.Suit.SPADES;
+        };
+        return Card.of(suit, rank);
+    }
+}